@@ -10,6 +10,7 @@ import io.tiledb.java.api.Pair;
 import io.tiledb.java.api.TileDBError;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.apache.commons.beanutils.ConvertUtils;
 
 public class Range implements java.io.Serializable, Comparable<Range> {
@@ -89,6 +90,21 @@ public class Range implements java.io.Serializable, Comparable<Range> {
     return range;
   }
 
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Range)) {
+      return false;
+    }
+    Range otherRange = (Range) other;
+    return Objects.equals(getFirst(), otherRange.getFirst())
+        && Objects.equals(getSecond(), otherRange.getSecond());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getFirst(), getSecond());
+  }
+
   public Range merge(Range other) {
     if (other.dataClassType != this.dataClassType) return null;
     if (this.dataClassType == Byte.class) {
@@ -0,0 +1,180 @@
+package io.tiledb.spark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Aggregation computed by the partition scans, optionally grouped by a dimension.
+ *
+ * <p>Every partition returns one row of partial results per group, which Spark merges into the
+ * final result. The aggregation is set by {@link TileDBAggregatePushdownRule} and passed to the
+ * reader as an encoded datasource option.
+ */
+public class TileDBAggregate implements Serializable {
+
+  /** Aggregate function over a column, the column is null for a count of all cells */
+  public static class Function implements Serializable {
+    private final String kind;
+    private final String column;
+
+    public Function(String kind, String column) {
+      this.kind = kind;
+      this.column = column;
+    }
+
+    /** @return one of "count", "sum", "min" or "max" */
+    public String getKind() {
+      return kind;
+    }
+
+    public String getColumn() {
+      return column;
+    }
+  }
+
+  private final String groupColumn;
+  private final List<Function> functions;
+  // filters applied before aggregation, pushed down to the reader
+  private final Filter[] filters;
+  private final StructType partialSchema;
+
+  /**
+   * @param groupColumn dimension to group by, null for a global aggregation
+   * @param functions aggregate functions
+   * @param filters filters applied before aggregation
+   * @param arraySchema Spark schema of the array
+   */
+  public TileDBAggregate(
+      String groupColumn, List<Function> functions, Filter[] filters, StructType arraySchema) {
+    this.groupColumn = groupColumn;
+    this.functions = functions;
+    this.filters = filters;
+    this.partialSchema = buildPartialSchema(arraySchema);
+  }
+
+  public String getGroupColumn() {
+    return groupColumn;
+  }
+
+  public List<Function> getFunctions() {
+    return functions;
+  }
+
+  public Filter[] getFilters() {
+    return filters;
+  }
+
+  /** @return schema of the partial results, the group column followed by one per function */
+  public StructType getPartialSchema() {
+    return partialSchema;
+  }
+
+  /** @return names of the array columns read to compute the aggregation */
+  public Set<String> getColumns() {
+    Set<String> columns = new LinkedHashSet<>();
+    if (groupColumn != null) {
+      columns.add(groupColumn);
+    }
+    for (Function function : functions) {
+      if (function.column != null) {
+        columns.add(function.column);
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Check if a Spark type can be summed, or its minimum and maximum computed, by the scan
+   *
+   * @param dataType Spark data type
+   * @return true for numeric scalar types
+   */
+  public static boolean isSupportedType(DataType dataType) {
+    return isIntegral(dataType)
+        || dataType.equals(DataTypes.FloatType)
+        || dataType.equals(DataTypes.DoubleType);
+  }
+
+  static boolean isIntegral(DataType dataType) {
+    return dataType.equals(DataTypes.ByteType)
+        || dataType.equals(DataTypes.ShortType)
+        || dataType.equals(DataTypes.IntegerType)
+        || dataType.equals(DataTypes.LongType);
+  }
+
+  /**
+   * Spark type of the partial result of a function, sums match the result types of Spark
+   *
+   * @param function aggregate function
+   * @param columnType type of the aggregated column, ignored for counts
+   * @return partial result type
+   */
+  static DataType partialType(Function function, DataType columnType) {
+    switch (function.kind) {
+      case "count":
+        return DataTypes.LongType;
+      case "sum":
+        return isIntegral(columnType) ? DataTypes.LongType : DataTypes.DoubleType;
+      default:
+        return columnType;
+    }
+  }
+
+  private StructType buildPartialSchema(StructType arraySchema) {
+    List<StructField> fields = new ArrayList<>();
+    if (groupColumn != null) {
+      StructField group = arraySchema.apply(groupColumn);
+      fields.add(new StructField(groupColumn, group.dataType(), false, group.metadata()));
+    }
+    for (int i = 0; i < functions.size(); i++) {
+      Function function = functions.get(i);
+      DataType columnType =
+          function.column == null ? null : arraySchema.apply(function.column).dataType();
+      // only counts are defined over no cells
+      fields.add(
+          DataTypes.createStructField(
+              "tiledb_partial_" + i + "_" + function.kind,
+              partialType(function, columnType),
+              !function.kind.equals("count")));
+    }
+    return new StructType(fields.toArray(new StructField[0]));
+  }
+
+  /** @return aggregation encoded as a datasource option value */
+  public String encode() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(this);
+    } catch (IOException err) {
+      throw new RuntimeException("Error encoding TileDB aggregate: " + err.getMessage());
+    }
+    return Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
+  /**
+   * @param value datasource option value
+   * @return decoded aggregation
+   */
+  public static TileDBAggregate decode(String value) {
+    byte[] bytes = Base64.getDecoder().decode(value);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (TileDBAggregate) in.readObject();
+    } catch (IOException | ClassNotFoundException err) {
+      throw new IllegalArgumentException("Invalid TileDB aggregate option: " + err.getMessage());
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package io.tiledb.spark;
+
+import static org.apache.spark.metrics.TileDBMetricsSource.queryAggregateTimerName;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.spark.TaskContext;
+import org.apache.spark.metrics.TileDBReadMetricsUpdater;
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.execution.vectorized.WritableColumnVector;
+import org.apache.spark.sql.sources.v2.reader.InputPartitionReader;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarBatch;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Computes the partial aggregates of a partition from the batches of its scan.
+ *
+ * <p>The scan batches are folded as they are read, so only one row per group is returned to Spark
+ * instead of every cell of the partition.
+ */
+public class TileDBAggregatePartitionReader implements InputPartitionReader<ColumnarBatch> {
+
+  private final TileDBDataReaderPartitionScan scan;
+  private final TileDBAggregate aggregate;
+  private final StructType scanSchema;
+  private final TileDBReadMetricsUpdater metricsUpdater;
+
+  // partial results per group, the key is null for a global aggregation
+  private final Map<Object, Accumulator[]> groups = new HashMap<>();
+
+  private ColumnarBatch resultBatch;
+  private boolean done;
+
+  public TileDBAggregatePartitionReader(
+      TileDBDataReaderPartitionScan scan, TileDBAggregate aggregate, StructType scanSchema) {
+    this.scan = scan;
+    this.aggregate = aggregate;
+    this.scanSchema = scanSchema;
+    this.metricsUpdater = new TileDBReadMetricsUpdater(TaskContext.get());
+  }
+
+  @Override
+  public boolean next() {
+    if (done) {
+      return false;
+    }
+    done = true;
+    metricsUpdater.startTimer(queryAggregateTimerName);
+    while (scan.next()) {
+      fold(scan.get());
+    }
+    if (aggregate.getGroupColumn() == null) {
+      // a global aggregation has a result even without cells
+      groups.computeIfAbsent(null, key -> newAccumulators());
+    }
+    resultBatch = buildResultBatch();
+    metricsUpdater.finish(queryAggregateTimerName);
+    return resultBatch.numRows() > 0;
+  }
+
+  @Override
+  public ColumnarBatch get() {
+    return resultBatch;
+  }
+
+  @Override
+  public void close() {
+    if (resultBatch != null) {
+      resultBatch.close();
+    }
+    scan.close();
+  }
+
+  private void fold(ColumnarBatch batch) {
+    int numRows = batch.numRows();
+    List<TileDBAggregate.Function> functions = aggregate.getFunctions();
+    ColumnVector[] vectors = new ColumnVector[functions.size()];
+    for (int i = 0; i < functions.size(); i++) {
+      String column = functions.get(i).getColumn();
+      vectors[i] = column == null ? null : batch.column(scanSchema.fieldIndex(column));
+    }
+
+    String groupColumn = aggregate.getGroupColumn();
+    if (groupColumn == null) {
+      Accumulator[] accumulators = groups.computeIfAbsent(null, key -> newAccumulators());
+      for (int i = 0; i < accumulators.length; i++) {
+        accumulators[i].addAll(vectors[i], numRows);
+      }
+      return;
+    }
+
+    ColumnVector groupVector = batch.column(scanSchema.fieldIndex(groupColumn));
+    DataType groupType = scanSchema.apply(groupColumn).dataType();
+    for (int row = 0; row < numRows; row++) {
+      Accumulator[] accumulators =
+          groups.computeIfAbsent(groupKey(groupVector, groupType, row), key -> newAccumulators());
+      for (int i = 0; i < accumulators.length; i++) {
+        accumulators[i].add(vectors[i], row);
+      }
+    }
+  }
+
+  private Accumulator[] newAccumulators() {
+    List<TileDBAggregate.Function> functions = aggregate.getFunctions();
+    Accumulator[] accumulators = new Accumulator[functions.size()];
+    for (int i = 0; i < functions.size(); i++) {
+      TileDBAggregate.Function function = functions.get(i);
+      if (function.getKind().equals("count")) {
+        accumulators[i] = new CountAccumulator();
+        continue;
+      }
+      DataType type = scanSchema.apply(function.getColumn()).dataType();
+      if (TileDBAggregate.isIntegral(type)) {
+        accumulators[i] = new LongAccumulator(function.getKind(), type);
+      } else {
+        accumulators[i] = new DoubleAccumulator(function.getKind(), type);
+      }
+    }
+    return accumulators;
+  }
+
+  private ColumnarBatch buildResultBatch() {
+    StructField[] fields = aggregate.getPartialSchema().fields();
+    int numGroups = groups.size();
+    WritableColumnVector[] vectors = new WritableColumnVector[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      vectors[i] = new OnHeapColumnVector(Math.max(numGroups, 1), fields[i].dataType());
+    }
+
+    boolean grouped = aggregate.getGroupColumn() != null;
+    int row = 0;
+    for (Map.Entry<Object, Accumulator[]> group : groups.entrySet()) {
+      int col = 0;
+      if (grouped) {
+        putGroupKey(vectors[col++], fields[0].dataType(), row, group.getKey());
+      }
+      for (Accumulator accumulator : group.getValue()) {
+        accumulator.write(vectors[col++], row);
+      }
+      row++;
+    }
+
+    ColumnarBatch batch = new ColumnarBatch(vectors);
+    batch.setNumRows(numGroups);
+    return batch;
+  }
+
+  private static Object groupKey(ColumnVector vector, DataType type, int row) {
+    if (TileDBAggregate.isIntegral(type)) {
+      return getLong(vector, type, row);
+    } else if (type.equals(DataTypes.FloatType) || type.equals(DataTypes.DoubleType)) {
+      return getDouble(vector, type, row);
+    } else if (type.equals(DataTypes.StringType)) {
+      // the scan reuses its buffers across batches
+      return vector.getUTF8String(row).clone();
+    }
+    throw new UnsupportedOperationException("Cannot group by type " + type);
+  }
+
+  private static void putGroupKey(WritableColumnVector vector, DataType type, int row, Object key) {
+    if (TileDBAggregate.isIntegral(type)) {
+      putLong(vector, type, row, (Long) key);
+    } else if (type.equals(DataTypes.StringType)) {
+      vector.putByteArray(row, ((UTF8String) key).getBytes());
+    } else {
+      putDouble(vector, type, row, (Double) key);
+    }
+  }
+
+  private static long getLong(ColumnVector vector, DataType type, int row) {
+    if (type.equals(DataTypes.ByteType)) {
+      return vector.getByte(row);
+    } else if (type.equals(DataTypes.ShortType)) {
+      return vector.getShort(row);
+    } else if (type.equals(DataTypes.IntegerType)) {
+      return vector.getInt(row);
+    }
+    return vector.getLong(row);
+  }
+
+  private static double getDouble(ColumnVector vector, DataType type, int row) {
+    if (type.equals(DataTypes.FloatType)) {
+      return vector.getFloat(row);
+    }
+    return vector.getDouble(row);
+  }
+
+  private static void putLong(WritableColumnVector vector, DataType type, int row, long value) {
+    if (type.equals(DataTypes.ByteType)) {
+      vector.putByte(row, (byte) value);
+    } else if (type.equals(DataTypes.ShortType)) {
+      vector.putShort(row, (short) value);
+    } else if (type.equals(DataTypes.IntegerType)) {
+      vector.putInt(row, (int) value);
+    } else {
+      vector.putLong(row, value);
+    }
+  }
+
+  private static void putDouble(WritableColumnVector vector, DataType type, int row, double value) {
+    if (type.equals(DataTypes.FloatType)) {
+      vector.putFloat(row, (float) value);
+    } else {
+      vector.putDouble(row, value);
+    }
+  }
+
+  /** Partial result of an aggregate function */
+  private abstract static class Accumulator {
+    abstract void add(ColumnVector vector, int row);
+
+    void addAll(ColumnVector vector, int numRows) {
+      for (int row = 0; row < numRows; row++) {
+        add(vector, row);
+      }
+    }
+
+    abstract void write(WritableColumnVector vector, int row);
+  }
+
+  private static class CountAccumulator extends Accumulator {
+    private long count;
+
+    @Override
+    void add(ColumnVector vector, int row) {
+      count++;
+    }
+
+    @Override
+    void addAll(ColumnVector vector, int numRows) {
+      count += numRows;
+    }
+
+    @Override
+    void write(WritableColumnVector vector, int row) {
+      vector.putLong(row, count);
+    }
+  }
+
+  /** Sum, minimum or maximum of an integral column */
+  private static class LongAccumulator extends Accumulator {
+    private final String kind;
+    private final DataType type;
+    private boolean empty = true;
+    private long value;
+
+    LongAccumulator(String kind, DataType type) {
+      this.kind = kind;
+      this.type = type;
+    }
+
+    @Override
+    void add(ColumnVector vector, int row) {
+      long v = getLong(vector, type, row);
+      if (empty) {
+        value = v;
+        empty = false;
+      } else if (kind.equals("sum")) {
+        value += v;
+      } else if (kind.equals("min")) {
+        value = Math.min(value, v);
+      } else {
+        value = Math.max(value, v);
+      }
+    }
+
+    @Override
+    void write(WritableColumnVector vector, int row) {
+      if (empty) {
+        vector.putNull(row);
+      } else if (kind.equals("sum")) {
+        vector.putLong(row, value);
+      } else {
+        putLong(vector, type, row, value);
+      }
+    }
+  }
+
+  /** Sum, minimum or maximum of a floating point column */
+  private static class DoubleAccumulator extends Accumulator {
+    private final String kind;
+    private final DataType type;
+    private boolean empty = true;
+    private double value;
+
+    DoubleAccumulator(String kind, DataType type) {
+      this.kind = kind;
+      this.type = type;
+    }
+
+    @Override
+    void add(ColumnVector vector, int row) {
+      double v = getDouble(vector, type, row);
+      if (empty) {
+        value = v;
+        empty = false;
+      } else if (kind.equals("sum")) {
+        value += v;
+      } else if (kind.equals("min")) {
+        // NaN is larger than any value, as in Spark
+        if (Double.compare(v, value) < 0) {
+          value = v;
+        }
+      } else if (Double.compare(v, value) > 0) {
+        value = v;
+      }
+    }
+
+    @Override
+    void write(WritableColumnVector vector, int row) {
+      if (empty) {
+        vector.putNull(row);
+      } else if (kind.equals("sum")) {
+        vector.putDouble(row, value);
+      } else {
+        putDouble(vector, type, row, value);
+      }
+    }
+  }
+}
@@ -0,0 +1,297 @@
+package io.tiledb.spark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import org.apache.spark.sql.catalyst.expressions.Alias;
+import org.apache.spark.sql.catalyst.expressions.And;
+import org.apache.spark.sql.catalyst.expressions.Attribute;
+import org.apache.spark.sql.catalyst.expressions.AttributeReference;
+import org.apache.spark.sql.catalyst.expressions.Coalesce;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.Literal;
+import org.apache.spark.sql.catalyst.expressions.NamedExpression;
+import org.apache.spark.sql.catalyst.expressions.NamedExpression$;
+import org.apache.spark.sql.catalyst.expressions.aggregate.AggregateExpression;
+import org.apache.spark.sql.catalyst.expressions.aggregate.AggregateFunction;
+import org.apache.spark.sql.catalyst.expressions.aggregate.Complete$;
+import org.apache.spark.sql.catalyst.expressions.aggregate.Count;
+import org.apache.spark.sql.catalyst.expressions.aggregate.Max;
+import org.apache.spark.sql.catalyst.expressions.aggregate.Min;
+import org.apache.spark.sql.catalyst.expressions.aggregate.Sum;
+import org.apache.spark.sql.catalyst.plans.logical.Aggregate;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.plans.logical.Project;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import org.apache.spark.sql.execution.datasources.DataSourceStrategy$;
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.DataTypes;
+import scala.Option;
+import scala.Predef$;
+import scala.collection.JavaConverters;
+import scala.collection.Seq;
+
+/**
+ * Optimizer rule pushing simple aggregations over a TileDB array into the partition scans.
+ *
+ * <p>An aggregate of counts, and of sums, minimums and maximums of numeric columns, optionally
+ * grouped by a dimension, over a TileDB relation with filters the reader fully handles is rewritten
+ * into a final aggregate over a relation returning one row of partial results per group and
+ * partition. Any other aggregate is left unchanged. The rule is installed by {@link
+ * TileDBSparkSessionExtensions}.
+ */
+public class TileDBAggregatePushdownRule extends Rule<LogicalPlan> {
+
+  static Logger log = Logger.getLogger(TileDBAggregatePushdownRule.class.getName());
+
+  // datasource option holding the encoded aggregation
+  static final String AGGREGATE_OPTION = "aggregate";
+
+  @Override
+  public LogicalPlan apply(LogicalPlan plan) {
+    LogicalPlan result = plan.mapChildren(this::apply);
+    if (result instanceof Aggregate) {
+      LogicalPlan pushed = pushDown((Aggregate) result);
+      if (pushed != null) {
+        return pushed;
+      }
+    }
+    return result;
+  }
+
+  /** @return the rewritten plan, or null if the aggregate cannot be pushed down */
+  private LogicalPlan pushDown(Aggregate aggregate) {
+    List<Expression> conditions = new ArrayList<>();
+    DataSourceV2Relation relation = findRelation(aggregate.child(), conditions);
+    if (relation == null) {
+      return null;
+    }
+    Map<String, String> options = JavaConverters.mapAsJavaMap(relation.options());
+    if (options.containsKey(AGGREGATE_OPTION)
+        || options.containsKey(TileDBLimitPushdownRule.LIMIT_OPTION)) {
+      return null;
+    }
+
+    // the filters must be fully handled by the reader, the scan applies them before aggregating
+    TileDBDataSourceReader reader = (TileDBDataSourceReader) relation.newReader();
+    Filter[] filters = handledFilters(conditions, reader);
+    if (filters == null) {
+      return null;
+    }
+
+    List<Expression> grouping = JavaConverters.seqAsJavaList(aggregate.groupingExpressions());
+    AttributeReference groupAttribute = null;
+    if (grouping.size() > 1) {
+      return null;
+    } else if (grouping.size() == 1) {
+      if (!isRelationAttribute(grouping.get(0), relation)) {
+        return null;
+      }
+      groupAttribute = (AttributeReference) grouping.get(0);
+      boolean supportedKey =
+          TileDBAggregate.isSupportedType(groupAttribute.dataType())
+              || groupAttribute.dataType().equals(DataTypes.StringType);
+      if (!reader.isDimension(groupAttribute.name()) || !supportedKey) {
+        return null;
+      }
+    }
+
+    List<NamedExpression> outputs = JavaConverters.seqAsJavaList(aggregate.aggregateExpressions());
+    List<TileDBAggregate.Function> functions = new ArrayList<>();
+    for (NamedExpression output : outputs) {
+      if (groupAttribute != null && ((Expression) output).semanticEquals(groupAttribute)) {
+        continue;
+      }
+      TileDBAggregate.Function function = toFunction(output, relation);
+      if (function == null) {
+        return null;
+      }
+      functions.add(function);
+    }
+
+    TileDBAggregate tiledbAggregate =
+        new TileDBAggregate(
+            groupAttribute == null ? null : groupAttribute.name(),
+            functions,
+            filters,
+            relation.schema());
+    Map<String, String> aggregateOptions = new HashMap<>(options);
+    aggregateOptions.put(AGGREGATE_OPTION, tiledbAggregate.encode());
+    DataSourceV2Relation partialRelation =
+        DataSourceV2Relation.create(
+            relation.source(),
+            toScalaMap(aggregateOptions),
+            relation.tableIdent(),
+            relation.userSpecifiedSchema());
+    log.debug("Pushing down aggregate " + aggregate.simpleString());
+
+    // merge the partial results, keeping the output ids of the original aggregate
+    List<AttributeReference> partials = JavaConverters.seqAsJavaList(partialRelation.output());
+    List<Expression> finalGrouping = new ArrayList<>();
+    List<NamedExpression> finalOutputs = new ArrayList<>();
+    if (groupAttribute != null) {
+      finalGrouping.add(partials.get(0));
+    }
+    int functionIdx = 0;
+    for (NamedExpression output : outputs) {
+      Expression merged;
+      if (groupAttribute != null && ((Expression) output).semanticEquals(groupAttribute)) {
+        merged = partials.get(0);
+      } else {
+        merged =
+            merge(functions.get(functionIdx), partials.get(finalGrouping.size() + functionIdx));
+        functionIdx++;
+      }
+      Option<org.apache.spark.sql.types.Metadata> metadata =
+          output instanceof Alias ? ((Alias) output).explicitMetadata() : Option.empty();
+      finalOutputs.add(
+          new Alias(merged, output.name(), output.exprId(), output.qualifier(), metadata));
+    }
+    return new Aggregate(toSeq(finalGrouping), toSeq(finalOutputs), partialRelation);
+  }
+
+  /** @return the function computing an aggregate output in the scan, null if not supported */
+  private static TileDBAggregate.Function toFunction(
+      NamedExpression output, DataSourceV2Relation relation) {
+    if (!(output instanceof Alias) || !(((Alias) output).child() instanceof AggregateExpression)) {
+      return null;
+    }
+    AggregateExpression expression = (AggregateExpression) ((Alias) output).child();
+    if (expression.mode() != Complete$.MODULE$ || expression.isDistinct()) {
+      return null;
+    }
+    AggregateFunction function = expression.aggregateFunction();
+    if (function instanceof Count) {
+      // TileDB cells are never null, so counting any column or literal counts all the cells
+      for (Expression countChild : JavaConverters.seqAsJavaList(function.children())) {
+        boolean nonNullLiteral = countChild instanceof Literal && !countChild.nullable();
+        if (!nonNullLiteral && !isRelationAttribute(countChild, relation)) {
+          return null;
+        }
+      }
+      return new TileDBAggregate.Function("count", null);
+    }
+    String kind;
+    if (function instanceof Sum) {
+      kind = "sum";
+    } else if (function instanceof Min) {
+      kind = "min";
+    } else if (function instanceof Max) {
+      kind = "max";
+    } else {
+      return null;
+    }
+    Expression column = function.children().head();
+    if (!isRelationAttribute(column, relation)
+        || !TileDBAggregate.isSupportedType(column.dataType())) {
+      return null;
+    }
+    return new TileDBAggregate.Function(kind, ((AttributeReference) column).name());
+  }
+
+  /** @return the aggregate merging the partial results of a function */
+  private static Expression merge(TileDBAggregate.Function function, Attribute partial) {
+    switch (function.getKind()) {
+      case "count":
+        // partitions without results do not return counts
+        List<Expression> children = new ArrayList<>();
+        children.add(toAggregateExpression(new Sum(partial)));
+        children.add(Literal.create(0L, DataTypes.LongType));
+        return new Coalesce(toSeq(children));
+      case "sum":
+        return toAggregateExpression(new Sum(partial));
+      case "min":
+        return toAggregateExpression(new Min(partial));
+      default:
+        return toAggregateExpression(new Max(partial));
+    }
+  }
+
+  private static AggregateExpression toAggregateExpression(AggregateFunction function) {
+    return new AggregateExpression(
+        function, Complete$.MODULE$, false, NamedExpression$.MODULE$.newExprId());
+  }
+
+  /**
+   * Find the TileDB relation below attribute only projections and filters
+   *
+   * @param plan plan to look through
+   * @param conditions conjuncts of the filter conditions found on the way
+   * @return the relation, or null if the plan is not a TileDB scan
+   */
+  static DataSourceV2Relation findRelation(LogicalPlan plan, List<Expression> conditions) {
+    LogicalPlan child = plan;
+    while (true) {
+      if (child instanceof Project && isAttributesOnly(((Project) child).projectList())) {
+        child = ((Project) child).child();
+      } else if (child instanceof org.apache.spark.sql.catalyst.plans.logical.Filter) {
+        splitConjuncts(
+            ((org.apache.spark.sql.catalyst.plans.logical.Filter) child).condition(), conditions);
+        child = ((org.apache.spark.sql.catalyst.plans.logical.Filter) child).child();
+      } else {
+        break;
+      }
+    }
+    if (child instanceof DataSourceV2Relation
+        && ((DataSourceV2Relation) child).source() instanceof TileDBDataSource) {
+      return (DataSourceV2Relation) child;
+    }
+    return null;
+  }
+
+  /**
+   * Translate filter conditions to datasource filters fully handled by a reader
+   *
+   * @param conditions filter conjuncts
+   * @param reader reader the filters are pushed to
+   * @return the datasource filters, or null if any condition is left to Spark
+   */
+  static Filter[] handledFilters(List<Expression> conditions, TileDBDataSourceReader reader) {
+    Filter[] filters = new Filter[conditions.size()];
+    for (int i = 0; i < conditions.size(); i++) {
+      Option<Filter> filter = DataSourceStrategy$.MODULE$.translateFilter(conditions.get(i));
+      if (filter.isEmpty()) {
+        return null;
+      }
+      filters[i] = filter.get();
+    }
+    if (reader.pushFilters(filters).length > 0) {
+      return null;
+    }
+    return filters;
+  }
+
+  static scala.collection.immutable.Map<String, String> toScalaMap(Map<String, String> map) {
+    return JavaConverters.mapAsScalaMapConverter(map).asScala().toMap(Predef$.MODULE$.$conforms());
+  }
+
+  private static boolean isRelationAttribute(Expression expression, LogicalPlan relation) {
+    return expression instanceof AttributeReference
+        && relation.outputSet().contains((AttributeReference) expression);
+  }
+
+  private static boolean isAttributesOnly(Seq<NamedExpression> projectList) {
+    for (NamedExpression expression : JavaConverters.seqAsJavaList(projectList)) {
+      if (!(expression instanceof Attribute)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void splitConjuncts(Expression condition, List<Expression> conjuncts) {
+    if (condition instanceof And) {
+      splitConjuncts(((And) condition).left(), conjuncts);
+      splitConjuncts(((And) condition).right(), conjuncts);
+    } else {
+      conjuncts.add(condition);
+    }
+  }
+
+  static <T> Seq<T> toSeq(List<T> list) {
+    return JavaConverters.asScalaBufferConverter(list).asScala().toSeq();
+  }
+}
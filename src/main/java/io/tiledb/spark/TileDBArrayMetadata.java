@@ -0,0 +1,178 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.Pair;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Snapshot of the metadata of a TileDB array needed to plan a scan: the Spark schema, the
+ * dimensions, the non-empty domain and the fragments, all as of the same open timestamp.
+ */
+public class TileDBArrayMetadata {
+
+  private final StructType sparkSchema;
+  private final List<String> dimensionNames;
+  private final List<Datatype> dimensionTypes;
+  private final HashMap<String, Pair> nonEmptyDomain;
+  private final List<Fragment> fragments;
+  private final long timestamp;
+
+  TileDBArrayMetadata(
+      StructType sparkSchema,
+      List<String> dimensionNames,
+      List<Datatype> dimensionTypes,
+      HashMap<String, Pair> nonEmptyDomain,
+      List<Fragment> fragments,
+      long timestamp) {
+    this.sparkSchema = sparkSchema;
+    this.dimensionNames = dimensionNames;
+    this.dimensionTypes = dimensionTypes;
+    this.nonEmptyDomain = nonEmptyDomain;
+    this.fragments = fragments;
+    this.timestamp = timestamp;
+  }
+
+  /** @return Spark schema of all dimensions and attributes */
+  public StructType getSparkSchema() {
+    return sparkSchema;
+  }
+
+  /** @return dimension names in domain order */
+  public List<String> getDimensionNames() {
+    return dimensionNames;
+  }
+
+  /** @return dimension datatypes in domain order */
+  public List<Datatype> getDimensionTypes() {
+    return dimensionTypes;
+  }
+
+  /** @return non-empty domain of the array keyed by dimension name */
+  public HashMap<String, Pair> getNonEmptyDomain() {
+    return nonEmptyDomain;
+  }
+
+  /** @return fragments visible at the snapshot timestamp */
+  public List<Fragment> getFragments() {
+    return fragments;
+  }
+
+  /** @return timestamp the array has to be opened at to read this snapshot */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /** Metadata of a single array fragment */
+  public static class Fragment {
+    private final String uri;
+    private final boolean sparse;
+    private final long timestampStart;
+    private final long timestampEnd;
+    private final long cellNum;
+    private final long size;
+    // non-empty domain of the fragment in dimension order
+    private final List<Pair> nonEmptyDomain;
+
+    Fragment(
+        String uri,
+        boolean sparse,
+        long timestampStart,
+        long timestampEnd,
+        long cellNum,
+        long size,
+        List<Pair> nonEmptyDomain) {
+      this.uri = uri;
+      this.sparse = sparse;
+      this.timestampStart = timestampStart;
+      this.timestampEnd = timestampEnd;
+      this.cellNum = cellNum;
+      this.size = size;
+      this.nonEmptyDomain = nonEmptyDomain;
+    }
+
+    public String getUri() {
+      return uri;
+    }
+
+    public boolean isSparse() {
+      return sparse;
+    }
+
+    public long getTimestampStart() {
+      return timestampStart;
+    }
+
+    public long getTimestampEnd() {
+      return timestampEnd;
+    }
+
+    /** @return number of cells written in the fragment */
+    public long getCellNum() {
+      return cellNum;
+    }
+
+    /** @return size of the fragment in bytes */
+    public long getSize() {
+      return size;
+    }
+
+    public List<Pair> getNonEmptyDomain() {
+      return nonEmptyDomain;
+    }
+
+    /**
+     * Estimate the fraction of the cells of the fragment within query ranges, assuming the cells
+     * are uniformly distributed over the fragment non-empty domain
+     *
+     * @param ranges query ranges per dimension
+     * @return fraction between 0 and 1
+     */
+    public double estimateSelectivity(List<List<Range>> ranges) {
+      double selectivity = 1.0;
+      for (int i = 0; i < ranges.size(); i++) {
+        selectivity *= estimateSelectivity(i, ranges.get(i));
+      }
+      return selectivity;
+    }
+
+    /**
+     * Estimate the fraction of the cells of the fragment within the ranges of one dimension
+     *
+     * @param dimIdx dimension index
+     * @param ranges query ranges of the dimension
+     * @return fraction between 0 and 1
+     */
+    public double estimateSelectivity(int dimIdx, List<Range> ranges) {
+      Pair domain = nonEmptyDomain.get(dimIdx);
+      // string dimensions are not scaled
+      if (!(domain.getFirst() instanceof Number) || !(domain.getSecond() instanceof Number)) {
+        return 1.0;
+      }
+      boolean integral =
+          !(domain.getFirst() instanceof Float || domain.getFirst() instanceof Double);
+      double low = ((Number) domain.getFirst()).doubleValue();
+      double high = ((Number) domain.getSecond()).doubleValue();
+      double width = high - low + (integral ? 1 : 0);
+      double overlap = 0;
+      boolean intersects = false;
+      for (Range range : ranges) {
+        if (!(range.getFirst() instanceof Number) || !(range.getSecond() instanceof Number)) {
+          return 1.0;
+        }
+        double start = Math.max(low, ((Number) range.getFirst()).doubleValue());
+        double end = Math.min(high, ((Number) range.getSecond()).doubleValue());
+        if (end >= start) {
+          overlap += end - start + (integral ? 1 : 0);
+          intersects = true;
+        }
+      }
+      if (width <= 0) {
+        // all the cells are on a single coordinate
+        return intersects ? 1.0 : 0.0;
+      }
+      return Math.min(overlap / width, 1.0);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Array;
+import io.tiledb.java.api.ArraySchema;
+import io.tiledb.java.api.Attribute;
+import io.tiledb.java.api.Context;
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.Dimension;
+import io.tiledb.java.api.Domain;
+import io.tiledb.java.api.FragmentInfo;
+import io.tiledb.java.api.Pair;
+import io.tiledb.java.api.TileDBError;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * Driver side cache of TileDB array metadata keyed by array URI (and TileDB config).
+ *
+ * <p>A cached entry is validated against the fragment info of the array on every lookup: it is
+ * reused as long as the number of fragments and the latest fragment timestamp did not change.
+ * Validating still lists and loads the fragment metadata, but skips reloading the schema and opening
+ * the array. Writes through this datasource invalidate the entries of their array.
+ *
+ * <p>The metadata_cache_ttl option opts into reusing an entry without any I/O for a while after it
+ * was loaded or last validated, writes by other processes are then only seen once it expired.
+ */
+public class TileDBArrayMetadataCache {
+
+  static Logger log = Logger.getLogger(TileDBArrayMetadataCache.class.getName());
+
+  private static final int MAX_ENTRIES = 64;
+
+  private static final LinkedHashMap<List<Object>, CacheEntry> entries =
+      new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, CacheEntry> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private static class CacheEntry {
+    private final long fragmentNum;
+    private final long latestTimestamp;
+    private final TileDBArrayMetadata metadata;
+    // time in ms the entry was loaded or last validated, guarded by entries
+    private long validatedAt;
+
+    CacheEntry(long fragmentNum, long latestTimestamp, TileDBArrayMetadata metadata) {
+      this.fragmentNum = fragmentNum;
+      this.latestTimestamp = latestTimestamp;
+      this.metadata = metadata;
+      this.validatedAt = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Get the metadata of the latest snapshot of an array
+   *
+   * @param uri array URI
+   * @param options TileDB datasource options
+   * @return array metadata
+   * @throws TileDBError A TileDB exception
+   */
+  public static TileDBArrayMetadata getArrayMetadata(URI uri, TileDBDataSourceOptions options)
+      throws TileDBError {
+    Map<String, String> config = options.getTileDBConfigMap();
+    List<Object> key = Arrays.asList(uri.toString(), new HashMap<>(config));
+    synchronized (entries) {
+      CacheEntry entry = entries.get(key);
+      if (entry != null
+          && System.currentTimeMillis() - entry.validatedAt < options.getMetadataCacheTtl()) {
+        return entry.metadata;
+      }
+    }
+    try (TileDBResourceCache.Lease<Context> ctx =
+            TileDBResourceCache.getInstance().acquireContext(config);
+        FragmentInfo fragmentInfo = new FragmentInfo(ctx.get(), uri.toString())) {
+      long fragmentNum = fragmentInfo.getFragmentNum();
+      long latestTimestamp = 0;
+      for (long i = 0; i < fragmentNum; i++) {
+        latestTimestamp = Math.max(latestTimestamp, fragmentInfo.getTimestampRange(i).getSecond());
+      }
+
+      synchronized (entries) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null
+            && entry.fragmentNum == fragmentNum
+            && entry.latestTimestamp == latestTimestamp) {
+          entry.validatedAt = System.currentTimeMillis();
+          return entry.metadata;
+        }
+      }
+
+      log.debug("Loading array metadata for " + uri);
+      // without fragments there is nothing to pin, open the array as of now
+      long timestamp = fragmentNum > 0 ? latestTimestamp : System.currentTimeMillis();
+      TileDBArrayMetadata metadata =
+          loadArrayMetadata(ctx.get(), uri, config, fragmentInfo, timestamp);
+      synchronized (entries) {
+        entries.put(key, new CacheEntry(fragmentNum, latestTimestamp, metadata));
+      }
+      return metadata;
+    }
+  }
+
+  /**
+   * Drop the cached metadata of an array, for all TileDB configs
+   *
+   * @param uri array URI
+   */
+  public static void invalidate(URI uri) {
+    synchronized (entries) {
+      entries.keySet().removeIf(key -> key.get(0).equals(uri.toString()));
+    }
+  }
+
+  private static TileDBArrayMetadata loadArrayMetadata(
+      Context ctx, URI uri, Map<String, String> config, FragmentInfo fragmentInfo, long timestamp)
+      throws TileDBError {
+    StructType sparkSchema = new StructType();
+    List<String> dimensionNames = new ArrayList<>();
+    List<Datatype> dimensionTypes = new ArrayList<>();
+    List<Boolean> dimensionIsVar = new ArrayList<>();
+    try (ArraySchema arraySchema = new ArraySchema(ctx, uri.toString());
+        Domain arrayDomain = arraySchema.getDomain()) {
+      // for every dimension add a struct field
+      for (int i = 0; i < arrayDomain.getNDim(); i++) {
+        try (Dimension dim = arrayDomain.getDimension(i)) {
+          String dimName = dim.getName();
+          dimensionNames.add(dimName);
+          dimensionTypes.add(dim.getType());
+          dimensionIsVar.add(dim.isVar());
+          // schema is immutable so to iteratively add we need to re-assign
+          sparkSchema =
+              sparkSchema.add(
+                  TileDBReadSchema.toStructField(dimName, true, dim.getType(), 1l, false));
+        }
+      }
+      // for every attribute add a struct field
+      for (int i = 0; i < arraySchema.getAttributeNum(); i++) {
+        try (Attribute attr = arraySchema.getAttribute(i)) {
+          sparkSchema =
+              sparkSchema.add(
+                  TileDBReadSchema.toStructField(
+                      attr.getName(), false, attr.getType(), attr.getCellValNum(), false));
+        }
+      }
+    }
+
+    List<TileDBArrayMetadata.Fragment> fragments = new ArrayList<>();
+    for (long i = 0; i < fragmentInfo.getFragmentNum(); i++) {
+      List<Pair> fragmentDomain = new ArrayList<>();
+      for (int d = 0; d < dimensionNames.size(); d++) {
+        if (dimensionIsVar.get(d)) {
+          fragmentDomain.add(fragmentInfo.getNonEmptyDomainVarFromIndex(i, d));
+        } else {
+          fragmentDomain.add(fragmentInfo.getNonEmptyDomainFromIndex(i, d));
+        }
+      }
+      Pair<Long, Long> timestampRange = fragmentInfo.getTimestampRange(i);
+      fragments.add(
+          new TileDBArrayMetadata.Fragment(
+              fragmentInfo.getFragmentURI(i),
+              fragmentInfo.getSparse(i),
+              timestampRange.getFirst(),
+              timestampRange.getSecond(),
+              fragmentInfo.getCellNum(i),
+              fragmentInfo.getFragmentSize(i),
+              fragmentDomain));
+    }
+
+    HashMap<String, Pair> nonEmptyDomain;
+    try (TileDBResourceCache.Lease<Array> array =
+        TileDBResourceCache.getInstance().acquireReadArray(config, uri, timestamp)) {
+      nonEmptyDomain = array.get().nonEmptyDomain();
+    }
+
+    return new TileDBArrayMetadata(
+        sparkSchema, dimensionNames, dimensionTypes, nonEmptyDomain, fragments, timestamp);
+  }
+}
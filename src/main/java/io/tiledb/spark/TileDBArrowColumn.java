@@ -0,0 +1,206 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.TileDBError;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.spark.sql.execution.arrow.ArrowUtils;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.vectorized.ArrowColumnVector;
+import org.apache.spark.unsafe.Platform;
+
+/**
+ * Off-heap Arrow storage for one column of a partition scan result batch.
+ *
+ * <p>TileDB query results are moved from the query buffers into the Arrow buffers with bulk memory
+ * copies. Only TileDB types whose Spark representation is wider or narrower than the native type
+ * (unsigned integers and datetimes) and the var-length offsets, which Arrow stores as int32 instead
+ * of uint64, are converted element by element.
+ */
+public class TileDBArrowColumn implements AutoCloseable {
+
+  // Arrow timestamps are stored as UTC microseconds, the zone only annotates the vector type
+  private static final String ARROW_TIME_ZONE = "UTC";
+
+  // TileDB datatype of the values stored in the query buffer
+  private final Datatype nativeType;
+
+  // number of values per cell for fixed size multi-value columns
+  private final long cellValNum;
+
+  // true if the query returns an offsets buffer for this column
+  private final boolean isVar;
+
+  private final FieldVector vector;
+
+  private final ArrowColumnVector columnVector;
+
+  public TileDBArrowColumn(
+      StructField field,
+      Datatype nativeType,
+      long cellValNum,
+      boolean isVar,
+      BufferAllocator allocator) {
+    this.nativeType = nativeType;
+    this.cellValNum = cellValNum;
+    this.isVar = isVar;
+    this.vector =
+        ArrowUtils.toArrowField(field.name(), field.dataType(), field.nullable(), ARROW_TIME_ZONE)
+            .createVector(allocator);
+    this.columnVector = new ArrowColumnVector(vector);
+  }
+
+  /** @return Spark column vector reading from the Arrow buffers of this column */
+  public ArrowColumnVector getColumnVector() {
+    return columnVector;
+  }
+
+  /**
+   * Allocate the Arrow buffers for an upper bound of rows and values
+   *
+   * @param maxRows maximum number of rows (cells) returned by a query submission
+   * @param maxValues maximum number of values returned by a query submission
+   */
+  public void allocate(int maxRows, int maxValues) {
+    vector.clear();
+    if (vector instanceof ListVector) {
+      ListVector listVector = (ListVector) vector;
+      listVector.setInitialCapacity(maxRows);
+      listVector.getDataVector().setInitialCapacity(maxValues);
+      listVector.allocateNew();
+    } else if (vector instanceof BaseVariableWidthVector) {
+      ((BaseVariableWidthVector) vector).allocateNew(maxValues, maxRows);
+    } else {
+      ((BaseFixedWidthVector) vector).allocateNew(maxRows);
+    }
+  }
+
+  /**
+   * Copy the results of the last query submission into the Arrow buffers
+   *
+   * @param offsets query offsets buffer, null for fixed size columns
+   * @param data query values buffer
+   * @param numOffsets number of offsets returned by the query
+   * @param numValues number of values returned by the query
+   * @return number of rows in the column
+   * @throws TileDBError A TileDB exception
+   */
+  public int load(NativeArray offsets, NativeArray data, long numOffsets, long numValues)
+      throws TileDBError {
+    long dataAddress = util.nativeArrayAddress(data);
+    int nValues = Math.toIntExact(numValues);
+    int nRows = isVar ? Math.toIntExact(numOffsets) : Math.toIntExact(numValues / cellValNum);
+
+    if (vector instanceof ListVector) {
+      ListVector listVector = (ListVector) vector;
+      FieldVector child = listVector.getDataVector();
+      copyValues(dataAddress, child.getDataBuffer().memoryAddress(), nValues);
+      setAllValid(child.getValidityBuffer().memoryAddress(), nValues);
+      child.setValueCount(nValues);
+      copyOffsets(offsets, listVector.getOffsetBuffer().memoryAddress(), nRows, nValues);
+      setAllValid(listVector.getValidityBuffer().memoryAddress(), nRows);
+      listVector.setLastSet(nRows - 1);
+      listVector.setValueCount(nRows);
+    } else if (vector instanceof BaseVariableWidthVector) {
+      BaseVariableWidthVector varVector = (BaseVariableWidthVector) vector;
+      Platform.copyMemory(
+          null,
+          dataAddress,
+          null,
+          varVector.getDataBuffer().memoryAddress(),
+          numValues * nativeType.getNativeSize());
+      copyOffsets(offsets, varVector.getOffsetBuffer().memoryAddress(), nRows, nValues);
+      setAllValid(varVector.getValidityBuffer().memoryAddress(), nRows);
+      // setValueCount fills the offsets of unset rows, mark all rows as set first
+      varVector.setLastSet(nRows - 1);
+      varVector.setValueCount(nRows);
+    } else {
+      copyValues(dataAddress, vector.getDataBuffer().memoryAddress(), nValues);
+      setAllValid(vector.getValidityBuffer().memoryAddress(), nRows);
+      vector.setValueCount(nRows);
+    }
+    return nRows;
+  }
+
+  /**
+   * Copy fixed size values, converting the TileDB types which have a different width in Spark
+   *
+   * @param src native address of the query buffer
+   * @param dst native address of the Arrow data buffer
+   * @param n number of values to copy
+   * @throws TileDBError A TileDB exception
+   */
+  private void copyValues(long src, long dst, int n) throws TileDBError {
+    switch (nativeType) {
+      case TILEDB_UINT8:
+        for (int i = 0; i < n; i++) {
+          Platform.putShort(null, dst + 2L * i, (short) (Platform.getByte(null, src + i) & 0xFF));
+        }
+        break;
+      case TILEDB_UINT16:
+        for (int i = 0; i < n; i++) {
+          Platform.putInt(null, dst + 4L * i, Platform.getShort(null, src + 2L * i) & 0xFFFF);
+        }
+        break;
+      case TILEDB_UINT32:
+        for (int i = 0; i < n; i++) {
+          Platform.putLong(null, dst + 8L * i, Platform.getInt(null, src + 4L * i) & 0xFFFFFFFFL);
+        }
+        break;
+      case TILEDB_DATETIME_WEEK:
+      case TILEDB_DATETIME_DAY:
+      case TILEDB_DATETIME_HR:
+      case TILEDB_DATETIME_MIN:
+      case TILEDB_DATETIME_SEC:
+      case TILEDB_DATETIME_MS:
+      case TILEDB_DATETIME_US:
+      case TILEDB_DATETIME_NS:
+        TileDBDatetime.copyToAddress(nativeType, src, dst, n);
+        break;
+      default:
+        Platform.copyMemory(null, src, null, dst, (long) n * nativeType.getNativeSize());
+    }
+  }
+
+  /**
+   * Write the Arrow int32 value offsets of the rows, the offsets are converted from the TileDB
+   * uint64 byte offsets for var-length columns and computed from the cell size otherwise
+   *
+   * @param offsets query offsets buffer, null for fixed size columns
+   * @param dst native address of the Arrow offsets buffer
+   * @param nRows number of rows
+   * @param nValues number of values, written as the closing offset
+   * @throws TileDBError A TileDB exception
+   */
+  private void copyOffsets(NativeArray offsets, long dst, int nRows, int nValues)
+      throws TileDBError {
+    if (isVar) {
+      long src = util.nativeArrayAddress(offsets);
+      int typeSize = nativeType.getNativeSize();
+      for (int i = 0; i < nRows; i++) {
+        Platform.putInt(
+            null, dst + 4L * i, (int) (Platform.getLong(null, src + 8L * i) / typeSize));
+      }
+    } else {
+      int cellNum = (int) cellValNum;
+      for (int i = 0; i < nRows; i++) {
+        Platform.putInt(null, dst + 4L * i, i * cellNum);
+      }
+    }
+    Platform.putInt(null, dst + 4L * nRows, nValues);
+  }
+
+  /** TileDB attributes are not nullable, mark the first n validity bits as set */
+  private static void setAllValid(long validityAddress, int n) {
+    Platform.setMemory(validityAddress, (byte) 0xFF, (n + 7) / 8);
+  }
+
+  @Override
+  public void close() {
+    columnVector.close();
+  }
+}
@@ -0,0 +1,438 @@
+package io.tiledb.spark;
+
+import static org.apache.spark.metrics.TileDBMetricsSource.queryGetArrowColumnTimerName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryGetScalarAttributeTimerName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryGetVariableLengthAttributeTimerName;
+
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.Pair;
+import io.tiledb.java.api.TileDBError;
+import org.apache.spark.sql.execution.vectorized.WritableColumnVector;
+import org.apache.spark.unsafe.Platform;
+
+/**
+ * Copies the results of a query submission for one field into its batch column.
+ *
+ * <p>The partition scan builds one copier per projected field when the result vectors are
+ * allocated, with the datatype, var-ness, cell value number and target vector of the field bound at
+ * construction. Copying a batch then needs no schema lookups and no per-batch dispatch on the
+ * datatype.
+ */
+public abstract class TileDBColumnCopier {
+
+  /**
+   * Copy the results of the last query submission
+   *
+   * @param buffers (offsets, values) query buffers of the field
+   * @param elements number of (offset, value) elements returned for the field
+   * @return number of rows copied into the column
+   * @throws TileDBError A TileDB exception
+   */
+  public abstract int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+      throws TileDBError;
+
+  /** @return name of the timer of the copies */
+  public abstract String timerName();
+
+  /**
+   * @param column Arrow column of the field
+   * @return copier loading the Arrow column
+   */
+  public static TileDBColumnCopier forArrowColumn(TileDBArrowColumn column) {
+    return new ArrowCopier(column);
+  }
+
+  /**
+   * @param vector vector reading the query buffer in place
+   * @return copier binding the vector to the query buffer
+   */
+  public static TileDBColumnCopier forNativeVector(TileDBNativeColumnVector vector) {
+    return new NativeCopier(vector);
+  }
+
+  /**
+   * @param vector vector reading the var-length query buffers in place
+   * @return copier binding the vector to the query buffers
+   */
+  public static TileDBColumnCopier forNativeStringVector(TileDBNativeStringVector vector) {
+    return new NativeStringCopier(vector);
+  }
+
+  /**
+   * @param vector on heap vector of the field
+   * @param type TileDB datatype of the field
+   * @param isVar true if the field has an offsets buffer
+   * @param cellValNum number of values per cell of fixed size fields
+   * @return copier of the query buffers into the vector
+   * @throws TileDBError if the datatype is not supported
+   */
+  public static TileDBColumnCopier forVector(
+      WritableColumnVector vector, Datatype type, boolean isVar, long cellValNum)
+      throws TileDBError {
+    ValueCopier values = valueCopier(type, isVar || cellValNum > 1);
+    if (isVar || cellValNum > 1) {
+      return new ArrayCopier(vector, values, isVar, Math.toIntExact(cellValNum), type);
+    }
+    return new ScalarCopier(vector, values);
+  }
+
+  /**
+   * @param vector array vector of a fixed size multi-value attribute
+   * @param type TileDB datatype of the attribute
+   * @return copier of the query values buffer into the values of the vector
+   * @throws TileDBError if the datatype is not supported
+   */
+  public static TileDBColumnCopier forFixedArrayVector(TileDBFixedArrayVector vector, Datatype type)
+      throws TileDBError {
+    return new FixedArrayCopier(vector, valueCopier(type, true));
+  }
+
+  static ValueCopier valueCopier(Datatype type, boolean isArray) throws TileDBError {
+    switch (type) {
+      case TILEDB_FLOAT32:
+        return new FloatCopier();
+      case TILEDB_FLOAT64:
+        return new DoubleCopier();
+      case TILEDB_INT8:
+      case TILEDB_CHAR:
+        return new ByteCopier();
+      case TILEDB_STRING_ASCII:
+      case TILEDB_STRING_UTF8:
+        // string types that don't require any re-encoding to Spark UTF-8 representation supported
+        // for now
+        if (isArray) {
+          return new ByteCopier();
+        }
+        break;
+      case TILEDB_INT16:
+        return new ShortCopier();
+      case TILEDB_UINT8:
+        return new UInt8Copier();
+      case TILEDB_INT32:
+        return new IntCopier();
+      case TILEDB_UINT16:
+        return new UInt16Copier();
+      case TILEDB_INT64:
+      case TILEDB_UINT64:
+        return new LongCopier();
+      case TILEDB_UINT32:
+        return new UInt32Copier();
+      case TILEDB_DATETIME_WEEK:
+      case TILEDB_DATETIME_DAY:
+      case TILEDB_DATETIME_HR:
+      case TILEDB_DATETIME_MIN:
+      case TILEDB_DATETIME_SEC:
+      case TILEDB_DATETIME_MS:
+      case TILEDB_DATETIME_US:
+      case TILEDB_DATETIME_NS:
+        return new DatetimeCopier(type);
+      default:
+        break;
+    }
+    throw new TileDBError("Not supported getDomain getType " + type);
+  }
+
+  private static class ArrowCopier extends TileDBColumnCopier {
+    private final TileDBArrowColumn column;
+
+    ArrowCopier(TileDBArrowColumn column) {
+      this.column = column;
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      long numOffsets = elements.getFirst() != null ? elements.getFirst() : 0;
+      return column.load(buffers.getFirst(), buffers.getSecond(), numOffsets, elements.getSecond());
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetArrowColumnTimerName;
+    }
+  }
+
+  private static class NativeCopier extends TileDBColumnCopier {
+    private final TileDBNativeColumnVector vector;
+
+    NativeCopier(TileDBNativeColumnVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      // values are read in place from the query buffer, only the result count is needed
+      vector.setBuffer(buffers.getSecond());
+      return Math.toIntExact(elements.getSecond());
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetScalarAttributeTimerName;
+    }
+  }
+
+  private static class NativeStringCopier extends TileDBColumnCopier {
+    private final TileDBNativeStringVector vector;
+
+    NativeStringCopier(TileDBNativeStringVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      int numRows = Math.toIntExact(elements.getFirst());
+      vector.setBuffers(buffers.getFirst(), buffers.getSecond(), numRows, elements.getSecond());
+      return numRows;
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetVariableLengthAttributeTimerName;
+    }
+  }
+
+  private static class FixedArrayCopier extends TileDBColumnCopier {
+    private final TileDBFixedArrayVector vector;
+    private final ValueCopier values;
+
+    FixedArrayCopier(TileDBFixedArrayVector vector, ValueCopier values) {
+      this.vector = vector;
+      this.values = values;
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      int bufferLength = Math.toIntExact(elements.getSecond());
+      WritableColumnVector child = vector.getValues();
+      child.reset();
+      child.reserve(bufferLength);
+      values.copy(util.nativeArrayAddress(buffers.getSecond()), child, bufferLength);
+      // the array of a row is located from the row index, no offsets are written
+      return bufferLength / vector.getCellValNum();
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetVariableLengthAttributeTimerName;
+    }
+  }
+
+  private static class ScalarCopier extends TileDBColumnCopier {
+    private final WritableColumnVector vector;
+    private final ValueCopier values;
+
+    ScalarCopier(WritableColumnVector vector, ValueCopier values) {
+      this.vector = vector;
+      this.values = values;
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      int numValues = Math.toIntExact(elements.getSecond());
+      vector.reset();
+      values.copy(util.nativeArrayAddress(buffers.getSecond()), vector, numValues);
+      return numValues;
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetScalarAttributeTimerName;
+    }
+  }
+
+  private static class ArrayCopier extends TileDBColumnCopier {
+    private final WritableColumnVector vector;
+    private final ValueCopier values;
+    private final boolean isVar;
+    private final int cellValNum;
+    // number of bytes per (scalar) element
+    private final int typeSize;
+
+    ArrayCopier(
+        WritableColumnVector vector,
+        ValueCopier values,
+        boolean isVar,
+        int cellValNum,
+        Datatype type)
+        throws TileDBError {
+      this.vector = vector;
+      this.values = values;
+      this.isVar = isVar;
+      this.cellValNum = cellValNum;
+      this.typeSize = type.getNativeSize();
+    }
+
+    @Override
+    public int copy(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      int bufferLength = Math.toIntExact(elements.getSecond());
+      // reset columnar batch start index
+      vector.reset();
+      WritableColumnVector child = vector.getChild(0);
+      child.reset();
+      child.reserve(bufferLength);
+      values.copy(util.nativeArrayAddress(buffers.getSecond()), child, bufferLength);
+
+      int numValues;
+      if (isVar) {
+        // add var length offsets, read in place from the offsets buffer
+        numValues = Math.toIntExact(elements.getFirst());
+        long offsets = util.nativeArrayAddress(buffers.getFirst());
+        long numBytes = (long) bufferLength * typeSize;
+        for (int j = 0; j < numValues; j++) {
+          long start = Platform.getLong(null, offsets + 8L * j);
+          long end = j < numValues - 1 ? Platform.getLong(null, offsets + 8L * (j + 1)) : numBytes;
+          int off1 = Math.toIntExact(start / typeSize);
+          int off2 = Math.toIntExact(end / typeSize);
+          vector.putArray(j, off1, off2 - off1);
+        }
+      } else {
+        // fixed size string attribute, array attributes use a TileDBFixedArrayVector
+        numValues = bufferLength / cellValNum;
+        for (int j = 0; j < numValues; j++) {
+          vector.putArray(j, cellValNum * j, cellValNum);
+        }
+      }
+      return numValues;
+    }
+
+    @Override
+    public String timerName() {
+      return queryGetVariableLengthAttributeTimerName;
+    }
+  }
+
+  /**
+   * Copies native values into a vector starting at row 0. Values of the same width as their Spark
+   * type are bulk copied through a scratch array reused across batches.
+   */
+  abstract static class ValueCopier {
+    abstract void copy(long address, WritableColumnVector vector, int count);
+  }
+
+  private static class ByteCopier extends ValueCopier {
+    private byte[] scratch = new byte[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new byte[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.BYTE_ARRAY_OFFSET, count);
+      vector.putBytes(0, count, scratch, 0);
+    }
+  }
+
+  private static class ShortCopier extends ValueCopier {
+    private short[] scratch = new short[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new short[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.SHORT_ARRAY_OFFSET, 2L * count);
+      vector.putShorts(0, count, scratch, 0);
+    }
+  }
+
+  private static class IntCopier extends ValueCopier {
+    private int[] scratch = new int[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new int[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.INT_ARRAY_OFFSET, 4L * count);
+      vector.putInts(0, count, scratch, 0);
+    }
+  }
+
+  private static class LongCopier extends ValueCopier {
+    private long[] scratch = new long[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new long[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.LONG_ARRAY_OFFSET, 8L * count);
+      vector.putLongs(0, count, scratch, 0);
+    }
+  }
+
+  private static class FloatCopier extends ValueCopier {
+    private float[] scratch = new float[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new float[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.FLOAT_ARRAY_OFFSET, 4L * count);
+      vector.putFloats(0, count, scratch, 0);
+    }
+  }
+
+  private static class DoubleCopier extends ValueCopier {
+    private double[] scratch = new double[0];
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      if (scratch.length < count) {
+        scratch = new double[count];
+      }
+      Platform.copyMemory(null, address, scratch, Platform.DOUBLE_ARRAY_OFFSET, 8L * count);
+      vector.putDoubles(0, count, scratch, 0);
+    }
+  }
+
+  /** Unsigned values are widened to the next larger signed type */
+  private static class UInt8Copier extends ValueCopier {
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      for (int i = 0; i < count; i++) {
+        vector.putShort(i, (short) (Platform.getByte(null, address + i) & 0xFF));
+      }
+    }
+  }
+
+  private static class UInt16Copier extends ValueCopier {
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      for (int i = 0; i < count; i++) {
+        vector.putInt(i, Platform.getShort(null, address + 2L * i) & 0xFFFF);
+      }
+    }
+  }
+
+  private static class UInt32Copier extends ValueCopier {
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      for (int i = 0; i < count; i++) {
+        vector.putLong(i, Platform.getInt(null, address + 4L * i) & 0xFFFFFFFFL);
+      }
+    }
+  }
+
+  private static class DatetimeCopier extends ValueCopier {
+    private final Datatype type;
+
+    DatetimeCopier(Datatype type) {
+      this.type = type;
+    }
+
+    @Override
+    void copy(long address, WritableColumnVector vector, int count) {
+      // converted straight from the query buffer
+      TileDBDatetime.copyToVector(type, address, vector, 0, count);
+    }
+  }
+}
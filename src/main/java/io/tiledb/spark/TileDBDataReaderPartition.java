@@ -2,6 +2,7 @@ package io.tiledb.spark;
 
 import java.net.URI;
 import java.util.List;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.sources.v2.reader.InputPartition;
 import org.apache.spark.sql.sources.v2.reader.InputPartitionReader;
 import org.apache.spark.sql.vectorized.ColumnarBatch;
@@ -12,20 +13,38 @@ public class TileDBDataReaderPartition implements InputPartition<ColumnarBatch>
   private URI uri;
   private TileDBReadSchema tileDBReadSchema;
   private TileDBDataSourceOptions tiledbOptions;
+  // array open timestamp picked by the driver so all partitions read the same snapshot
+  private long openTimestamp;
+  // attribute filters evaluated by the scan
+  private Filter[] attributeFilters;
+  // aggregation computed from the scan, null to return the cells
+  private TileDBAggregate aggregate;
 
   public TileDBDataReaderPartition(
       URI uri,
       TileDBReadSchema schema,
       TileDBDataSourceOptions options,
-      List<List<Range>> pushedRanges) {
+      List<List<Range>> pushedRanges,
+      long openTimestamp,
+      Filter[] attributeFilters,
+      TileDBAggregate aggregate) {
     this.uri = uri;
     this.tileDBReadSchema = schema;
     this.tiledbOptions = options;
     this.pushedRanges = pushedRanges;
+    this.openTimestamp = openTimestamp;
+    this.attributeFilters = attributeFilters;
+    this.aggregate = aggregate;
   }
 
   @Override
   public InputPartitionReader<ColumnarBatch> createPartitionReader() {
-    return new TileDBDataReaderPartitionScan(uri, tileDBReadSchema, tiledbOptions, pushedRanges);
+    TileDBDataReaderPartitionScan scan =
+        new TileDBDataReaderPartitionScan(
+            uri, tileDBReadSchema, tiledbOptions, pushedRanges, openTimestamp, attributeFilters);
+    if (aggregate != null) {
+      return new TileDBAggregatePartitionReader(scan, aggregate, tileDBReadSchema.getSparkSchema());
+    }
+    return scan;
   }
 }
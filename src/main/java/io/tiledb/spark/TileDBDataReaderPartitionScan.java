@@ -6,14 +6,16 @@ import static io.tiledb.java.api.QueryStatus.TILEDB_INCOMPLETE;
 import static io.tiledb.java.api.QueryStatus.TILEDB_UNINITIALIZED;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryAllocBufferTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryCloseNativeArraysTimerName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryGetColumnsTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryGetDimensionTimerName;
-import static org.apache.spark.metrics.TileDBMetricsSource.queryGetScalarAttributeTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryGetTimerName;
-import static org.apache.spark.metrics.TileDBMetricsSource.queryGetVariableLengthAttributeTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryInitTimerName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryLateMaterializationFallbackCounterName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryLateMaterializationProbeTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryNextTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryReadTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.queryReadTimerTaskName;
+import static org.apache.spark.metrics.TileDBMetricsSource.queryWaitSubmitTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.tileDBReadQuerySubmitTimerName;
 
 import io.tiledb.java.api.*;
@@ -22,34 +24,76 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.log4j.Logger;
 import org.apache.spark.TaskContext;
 import org.apache.spark.metrics.TileDBReadMetricsUpdater;
+import org.apache.spark.sql.execution.arrow.ArrowUtils;
 import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.execution.vectorized.WritableColumnVector;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.sources.v2.reader.InputPartitionReader;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.vectorized.ColumnVector;
 import org.apache.spark.sql.vectorized.ColumnarBatch;
-import oshi.hardware.HardwareAbstractionLayer;
 
 public class TileDBDataReaderPartitionScan implements InputPartitionReader<ColumnarBatch> {
 
   static Logger log = Logger.getLogger(TileDBDataReaderPartitionScan.class.getName());
 
-  // Filter pushdown to this partition
-  private final List<List<Range>> pushedRanges;
+  // Filter pushdown to this partition, narrowed to the matching cells by late materialization
+  private List<List<Range>> pushedRanges;
 
-  // HAL for getting memory details about doubling buffers
-  private final HardwareAbstractionLayer hardwareAbstractionLayer;
+  // Datatype, var-ness and cell value number (1 for var-length fields) of every query field,
+  // resolved once from the array schema
+  private Datatype[] fieldTypes;
+  private boolean[] fieldVar;
+  private long[] fieldCellValNums;
+
+  // Copiers of the batch columns indexed by the projected schema field indexes, null for the dense
+  // coordinate columns
+  private TileDBColumnCopier[] copiers;
+
+  // Nanoseconds spent copying each column over the whole scan, indexed like the copiers and logged
+  // on close
+  private long[] columnCopyNanos;
+
+  // True if the late materialization probe found no matching cells in the partition
+  private boolean noMatchingCells;
+
+  // Accounts the query buffers with the task memory manager, which grants buffer growth
+  private final TileDBMemoryConsumer memoryConsumer;
   private final TileDBReadMetricsUpdater metricsUpdater;
 
+  // Lower bound in bytes of an estimate based read buffer
+  private static final long MIN_READ_BUFFER_SIZE = 64 * 1024;
+
   // read buffer size
   private long read_query_buffer_size;
 
+  // maximum number of rows returned by the partition, from a pushed down limit
+  private final long readLimit;
+
+  // number of rows returned so far
+  private long rowsReturned;
+
+  // (offsets, values) buffer sizes in bytes of the query fields
+  private List<Pair<Long, Long>> bufferSizes;
+
   // array resource URI (dense or sparse)
   private URI arrayURI;
 
@@ -63,14 +107,37 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
   private Query query;
   private Domain domain;
 
+  // Leases on the cached context and array, released on close
+  private TileDBResourceCache.Lease<Context> ctxLease;
+  private TileDBResourceCache.Lease<Array> arrayLease;
+
   // Spark schema object associated with this projection (if any) for the query
   private StructType sparkSchema;
 
   // Spark columnar batch object to return from batch column iterator
   private ColumnarBatch resultBatch;
 
-  // Spark batch column vectors
-  private OnHeapColumnVector[] resultVectors;
+  // Spark batch column vectors, either read in place from the query buffers or copied on heap
+  private ColumnVector[] resultVectors;
+
+  // Pushed down attribute filters evaluated on every batch, null if there are none
+  private TileDBFilterEvaluator filterEvaluator;
+
+  // Views copying the result vectors on first access when read_lazy_columns is set, null for the
+  // columns that are not copied
+  private TileDBLazyColumnVector[] lazyVectors;
+
+  // Views of the selected rows of the result vectors when filters are evaluated
+  private TileDBSelectedColumnVector[] selectedVectors;
+
+  // Number of (offset, value) elements per field returned by the last query submission
+  private HashMap<String, Pair<Long, Long>> resultBufferElements;
+
+  // Arrow columns backing the result vectors when Arrow batches are requested, null otherwise
+  private TileDBArrowColumn[] arrowColumns;
+
+  // Allocator of the Arrow column buffers for this partition
+  private BufferAllocator arrowAllocator;
 
   // Query status
   private QueryStatus queryStatus;
@@ -79,19 +146,84 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
 
   private List<String> fieldNames;
 
+  // (start, stride, extent) of the dense dimension columns computed from the subarray instead of
+  // read, indexed by the query field indexes, null if all fields are read
+  private long[][] denseCoordinates;
+
+  // Number of cells returned by the query before the current batch, and in total
+  private long batchCellOffset;
+  private long cellsRead;
+
   /**
    * List of NativeArray buffers used in the query object. This is indexed based on columnHandles
    * indexing (aka query field indexes)
    */
   private ArrayList<Pair<NativeArray, NativeArray>> queryBuffers;
 
+  // Buffers holding the results of the last completed submission, read by get()
+  private ArrayList<Pair<NativeArray, NativeArray>> resultBuffers;
+
+  // Second buffer set for background submissions, null unless read_async_submit is set
+  private ArrayList<Pair<NativeArray, NativeArray>> spareBuffers;
+
+  // Result buffer sizes in bytes of the last completed submission
+  private HashMap<String, Pair<Long, Long>> resultBufferSizes;
+
+  // Background query submission, at most one is outstanding per partition
+  private Future<?> pendingSubmit;
+
+  // Daemon threads running background query submissions for all partitions of the executor
+  private static final ExecutorService submitExecutor =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "tiledb-read-submit");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  // Daemon threads copying the columns of batches for all partitions of the executor, half of the
+  // cores are left to the Spark task slots
+  private static final ExecutorService columnExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+          runnable -> {
+            Thread thread = new Thread(runnable, "tiledb-read-column");
+            thread.setDaemon(true);
+            return thread;
+          });
+
   public TileDBDataReaderPartitionScan(
       URI uri,
       TileDBReadSchema schema,
       TileDBDataSourceOptions options,
-      List<List<Range>> pushedRanges) {
+      List<List<Range>> pushedRanges,
+      long openTimestamp,
+      Filter[] attributeFilters) {
+    this(
+        uri,
+        schema.getSparkSchema(),
+        options,
+        pushedRanges,
+        openTimestamp,
+        attributeFilters,
+        options.getLateMaterialization());
+  }
+
+  /**
+   * @param sparkSchema projected Spark schema, already resolved so that no array metadata is loaded
+   * @param lateMaterialization read the filtered columns first and the other columns only around
+   *     the matching cells
+   */
+  private TileDBDataReaderPartitionScan(
+      URI uri,
+      StructType sparkSchema,
+      TileDBDataSourceOptions options,
+      List<List<Range>> pushedRanges,
+      long openTimestamp,
+      Filter[] attributeFilters,
+      boolean lateMaterialization) {
     this.arrayURI = uri;
-    this.sparkSchema = schema.getSparkSchema();
+    this.sparkSchema = sparkSchema;
     this.options = options;
     this.queryStatus = TILEDB_UNINITIALIZED;
     this.pushedRanges = pushedRanges;
@@ -108,15 +240,17 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
         });
 
     this.read_query_buffer_size = options.getReadBufferSizes();
+    this.readLimit = options.getReadLimit().orElse(Long.MAX_VALUE);
 
-    oshi.SystemInfo systemInfo = new oshi.SystemInfo();
-
-    this.hardwareAbstractionLayer = systemInfo.getHardware();
+    this.memoryConsumer = new TileDBMemoryConsumer(task.taskMemoryManager(), null);
 
     try {
-      // Init TileDB resources
-      ctx = new Context(options.getTileDBConfigMap());
-      array = new Array(ctx, arrayURI.toString(), QueryType.TILEDB_READ);
+      // Init TileDB resources, shared with the other partitions of this array on the executor
+      TileDBResourceCache cache = TileDBResourceCache.getInstance();
+      ctxLease = cache.acquireContext(options.getTileDBConfigMap());
+      ctx = ctxLease.get();
+      arrayLease = cache.acquireReadArray(options.getTileDBConfigMap(), arrayURI, openTimestamp);
+      array = arrayLease.get();
       arraySchema = array.getSchema();
       domain = arraySchema.getDomain();
 
@@ -126,25 +260,32 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
                 .map(field -> field.name())
                 .collect(Collectors.toList());
       else {
-        fieldNames =
-            domain
-                .getDimensions()
-                .stream()
-                .map(
-                    dimension -> {
-                      try {
-                        return dimension.getName();
-                      } catch (TileDBError error) {
-                        return null;
-                      }
-                    })
-                .collect(Collectors.toList());
+        // COUNT() only needs the number of cells, read a single coordinate buffer
+        fieldNames = Collections.singletonList(countDimensionName());
       }
 
+      if (attributeFilters.length > 0) {
+        // filtered columns are read even if they are not projected
+        fieldNames = new ArrayList<>(fieldNames);
+        for (String name : TileDBFilterEvaluator.references(attributeFilters)) {
+          if (!fieldNames.contains(name)) {
+            fieldNames.add(name);
+          }
+        }
+        filterEvaluator = new TileDBFilterEvaluator(attributeFilters, fieldNames, arraySchema);
+        if (lateMaterialization && hasUnfilteredAttributes(attributeFilters)) {
+          narrowToMatchingCells(openTimestamp, attributeFilters);
+        }
+      }
+      loadFieldMetadata();
+      denseCoordinates = planDenseCoordinates(attributeFilters);
+
       this.queryBuffers = new ArrayList<>(Collections.nCopies(fieldNames.size(), null));
 
       // init query
-      this.initQuery();
+      if (!noMatchingCells) {
+        this.initQuery();
+      }
     } catch (TileDBError tileDBError) {
       tileDBError.printStackTrace();
     }
@@ -153,6 +294,10 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
   @Override
   public boolean next() {
     metricsUpdater.startTimer(queryNextTimerName);
+    if (noMatchingCells) {
+      metricsUpdater.finish(queryNextTimerName);
+      return false;
+    }
     try {
       // first submission initialize the query and see if we can fast fail;
       if (query == null) {
@@ -160,30 +305,30 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
       }
 
       // If the query was completed, and we have exhausted all records then we should close the
-      // cursor
-      if (queryStatus == TILEDB_COMPLETED) {
+      // cursor. Under a limit the query is left incomplete once enough rows were returned
+      if (queryStatus == TILEDB_COMPLETED || rowsReturned >= readLimit) {
         metricsUpdater.finish(queryNextTimerName);
         return false;
       }
 
       do {
-        metricsUpdater.startTimer(tileDBReadQuerySubmitTimerName);
-        query.submit();
-        metricsUpdater.finish(tileDBReadQuerySubmitTimerName);
+        if (pendingSubmit != null) {
+          // the submission was started in the background while the previous batch was consumed
+          awaitPendingSubmit();
+        } else {
+          metricsUpdater.startTimer(tileDBReadQuerySubmitTimerName);
+          query.submit();
+          metricsUpdater.finish(tileDBReadQuerySubmitTimerName);
+        }
 
         queryStatus = query.getQueryStatus();
 
         // Compute the number of cells (records) that were returned by the query.
         HashMap<String, Pair<Long, Long>> queryResultBufferElements = query.resultBufferElements();
-        long currentNumRecords;
-
-        String fieldName = fieldNames.get(0);
-        boolean isVar;
-        if (domain.hasDimension(fieldName)) isVar = domain.getDimension(fieldName).isVar();
-        else isVar = arraySchema.getAttribute(fieldName).isVar();
-
-        if (isVar) currentNumRecords = queryResultBufferElements.get(fieldNames.get(0)).getFirst();
-        else currentNumRecords = queryResultBufferElements.get(fieldNames.get(0)).getSecond();
+        resultBufferElements = queryResultBufferElements;
+        resultBufferSizes = query.resultBufferSizes();
+        resultBuffers = queryBuffers;
+        long currentNumRecords = resultNumRecords();
 
         // Increase the buffer allocation and resubmit if necessary.
         if (queryStatus == TILEDB_INCOMPLETE && currentNumRecords == 0) { // VERY IMPORTANT!!
@@ -194,6 +339,15 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
                 "Incomplete query with no more records means the buffers are too small but allow_read_buffer_realloc is set to false!");
           }
         } else if (currentNumRecords > 0) {
+          batchCellOffset = cellsRead;
+          cellsRead += currentNumRecords;
+          // Fetch the next results into the spare buffers while this batch is consumed
+          if (queryStatus == TILEDB_INCOMPLETE
+              && spareBuffers != null
+              && !task.isInterrupted()
+              && rowsReturned + currentNumRecords < readLimit) {
+            submitAsync();
+          }
           // Break out of resubmit loop as we have some results.
           metricsUpdater.finish(queryNextTimerName);
           return true;
@@ -213,25 +367,47 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     try {
       int colIdx = 0;
       int nRows = 0;
-      // This is a special case for COUNT() on the table where no columns are materialized
+      // This is a special case for COUNT() on the table where no columns are materialized, the
+      // batch has no columns and only reports the number of cells read
       if (sparkSchema.fields().length == 0) {
-        // TODO: materialize the first dimension and count the result set size
-        try (Dimension dim = domain.getDimension(0)) {
-          if (dim.isVar()) {
-            nRows =
-                getVarLengthAttributeColumn(
-                    dim.getName(), dim.getType(), dim.isVar(), dim.getCellValNum(), 0);
-          } else {
-            nRows = getScalarValueColumn(dim.getName(), dim.getType(), 0);
-          }
-        }
+        nRows = Math.toIntExact(resultNumRecords());
       } else {
+        metricsUpdater.startTimer(queryGetColumnsTimerName);
+        List<Future<Integer>> copies = new ArrayList<>();
         // loop over all Spark attributes (DataFrame columns) and copy the query result set
         for (StructField field : sparkSchema.fields()) {
-          nRows = getColumnBatch(field, colIdx);
+          if (isDenseCoordinate(colIdx)) {
+            // computed on access, only the position of the batch in the subarray is needed
+            ((TileDBDenseCoordinateVector) resultVectors[colIdx]).setCellOffset(batchCellOffset);
+            nRows = Math.toIntExact(resultNumRecords());
+          } else if (lazyVectors != null && lazyVectors[colIdx] != null) {
+            // copied when the batch column is first read
+            int index = colIdx;
+            lazyVectors[colIdx].setLoader(() -> getColumnBatch(field, index));
+            nRows = Math.toIntExact(resultNumRecords());
+          } else if (options.getReadParallelColumns() && isCopiedColumn(colIdx)) {
+            int index = colIdx;
+            copies.add(columnExecutor.submit(() -> getColumnBatch(field, index)));
+          } else {
+            nRows = getColumnBatch(field, colIdx);
+          }
           colIdx++;
         }
+        if (!copies.isEmpty()) {
+          nRows = awaitColumnCopies(copies);
+        }
+        metricsUpdater.finish(queryGetColumnsTimerName);
+      }
+      if (filterEvaluator != null) {
+        // only the matching rows are handed out to Spark
+        nRows = filterEvaluator.evaluate(resultBuffers, resultBufferElements, nRows);
+        for (TileDBSelectedColumnVector vector : selectedVectors) {
+          vector.setSelection(filterEvaluator.getSelection());
+        }
       }
+      // rows past the limit are not needed
+      nRows = (int) Math.min(nRows, readLimit - rowsReturned);
+      rowsReturned += nRows;
       // set the number of rows for the batch result set this enables sharing the columnar batch
       // columns
       // across iterations and the total number of rows allocated will be the high water number of
@@ -246,16 +422,380 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     return resultBatch;
   }
 
+  /**
+   * Number of cells returned by the last query submission, counted from the first field read
+   *
+   * @return number of cells
+   * @throws TileDBError A TileDB exception
+   */
+  private long resultNumRecords() throws TileDBError {
+    int index = 0;
+    while (isDenseCoordinate(index)) {
+      index++;
+    }
+    Pair<Long, Long> elements = resultBufferElements.get(fieldNames.get(index));
+    if (fieldVar[index]) {
+      return elements.getFirst();
+    }
+    return elements.getSecond() / fieldCellValNums[index];
+  }
+
+  /**
+   * Plan the dimension columns of a dense read that are computed from the subarray instead of read
+   * from TileDB. A dense read of a single subarray in row-major or col-major layout returns every
+   * cell of the subarray in layout order, so the coordinates are known in advance. Filtered
+   * dimensions are still read, and at least one field is read to count the cells of a submission.
+   *
+   * @param attributeFilters filters evaluated on every batch
+   * @return (start, stride, extent) of the computed dimension columns indexed by the query field
+   *     indexes, null if all fields are read
+   * @throws TileDBError A TileDB exception
+   */
+  private long[][] planDenseCoordinates(Filter[] attributeFilters) throws TileDBError {
+    if (arraySchema.isSparse() || options.getReadArrowBatches()) {
+      return null;
+    }
+    Layout layout =
+        options
+            .getArrayLayout()
+            .filter(l -> l != Layout.TILEDB_UNORDERED)
+            .orElse(arraySchema.getCellOrder());
+    if (layout != Layout.TILEDB_ROW_MAJOR && layout != Layout.TILEDB_COL_MAJOR) {
+      return null;
+    }
+
+    int ndim = Math.toIntExact(domain.getNDim());
+    String[] names = new String[ndim];
+    long[] starts = new long[ndim];
+    long[] extents = new long[ndim];
+    for (int i = 0; i < ndim; i++) {
+      Object lower;
+      Object upper;
+      try (Dimension dim = domain.getDimension(i)) {
+        names[i] = dim.getName();
+        if (dim.isVar() || !isIntegerType(dim.getType())) {
+          return null;
+        }
+        if (pushedRanges.isEmpty()) {
+          // without pushed ranges the whole domain is read
+          Pair dimDomain = dim.getDomain();
+          lower = dimDomain.getFirst();
+          upper = dimDomain.getSecond();
+        } else {
+          // every subarray of the partition must share the same range
+          if (pushedRanges.get(0).size() != ndim) {
+            return null;
+          }
+          Range range = pushedRanges.get(0).get(i);
+          for (List<Range> ranges : pushedRanges) {
+            if (ranges.size() != ndim || !ranges.get(i).equals(range)) {
+              return null;
+            }
+          }
+          lower = range.getFirst();
+          upper = range.getSecond();
+        }
+      }
+      starts[i] = ((Number) lower).longValue();
+      extents[i] = ((Number) upper).longValue() - starts[i] + 1;
+      if (extents[i] <= 0) {
+        return null;
+      }
+    }
+
+    long[] strides = new long[ndim];
+    try {
+      long stride = 1;
+      for (int j = 0; j < ndim; j++) {
+        int i = layout == Layout.TILEDB_ROW_MAJOR ? ndim - 1 - j : j;
+        strides[i] = stride;
+        stride = Math.multiplyExact(stride, extents[i]);
+      }
+    } catch (ArithmeticException err) {
+      return null;
+    }
+
+    Set<String> filtered =
+        filterEvaluator != null
+            ? TileDBFilterEvaluator.references(attributeFilters)
+            : Collections.emptySet();
+    long[][] coordinates = new long[fieldNames.size()][];
+    int numRead = 0;
+    for (int f = 0; f < fieldNames.size(); f++) {
+      int i = Arrays.asList(names).indexOf(fieldNames.get(f));
+      if (i >= 0 && !filtered.contains(names[i])) {
+        coordinates[f] = new long[] {starts[i], strides[i], extents[i]};
+      } else {
+        numRead++;
+      }
+    }
+    if (numRead == 0) {
+      coordinates[0] = null;
+    }
+    if (Arrays.stream(coordinates).allMatch(c -> c == null)) {
+      return null;
+    }
+    log.debug("Computing the dense coordinates of " + arrayURI + " from the subarray");
+    return coordinates;
+  }
+
+  /**
+   * @param attributeFilters filters evaluated on every batch
+   * @return true if an attribute is projected but not filtered, the columns late materialization
+   *     reads around the matching cells only
+   * @throws TileDBError A TileDB exception
+   */
+  private boolean hasUnfilteredAttributes(Filter[] attributeFilters) throws TileDBError {
+    Set<String> filtered = TileDBFilterEvaluator.references(attributeFilters);
+    for (StructField field : sparkSchema.fields()) {
+      if (!filtered.contains(field.name()) && !domain.hasDimension(field.name())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Late materialization: read the dimensions and filtered columns of the partition, and narrow the
+   * pushed ranges to ranges around the cells matching the filters. The projected columns are then
+   * only read over the narrowed ranges, the filters are evaluated again on that read. Sparse arrays
+   * get up to {@link TileDBLateMaterialization#MAX_RANGES} ranges per dimension, dense arrays a
+   * single range per dimension. The ranges are kept if a dimension is not an integer, or if too
+   * many cells match. The first read is a plain read without the read modes and limit of the scan,
+   * it stops as soon as the matching cells extrapolated to its estimated cells exceed {@link
+   * TileDBLateMaterialization#MAX_CELLS}.
+   *
+   * @param openTimestamp timestamp the array is opened at
+   * @param attributeFilters filters evaluated on every batch
+   * @throws TileDBError A TileDB exception
+   */
+  private void narrowToMatchingCells(long openTimestamp, Filter[] attributeFilters)
+      throws TileDBError {
+    int ndim = Math.toIntExact(domain.getNDim());
+    StructType dimensions = new StructType();
+    Class<?>[] coordinateTypes = new Class<?>[ndim];
+    for (int i = 0; i < ndim; i++) {
+      try (Dimension dim = domain.getDimension(i)) {
+        // unsigned 64 bit coordinates do not fit the signed range arithmetic
+        if (dim.isVar() || !isIntegerType(dim.getType()) || dim.getType() == TILEDB_UINT64) {
+          log.debug("No late materialization of " + arrayURI + " on dimension " + dim.getName());
+          return;
+        }
+        coordinateTypes[i] = dim.getDomain().getFirst().getClass();
+        dimensions =
+            dimensions.add(
+                TileDBReadSchema.toStructField(dim.getName(), true, dim.getType(), 1, false));
+      }
+    }
+
+    // the partition bounds of every dimension
+    List<List<long[]>> bounds = new ArrayList<>();
+    for (int i = 0; i < ndim; i++) {
+      Set<List<Long>> dimensionBounds = new LinkedHashSet<>();
+      if (pushedRanges.isEmpty()) {
+        try (Dimension dim = domain.getDimension(i)) {
+          Pair dimDomain = dim.getDomain();
+          dimensionBounds.add(
+              Arrays.asList(
+                  ((Number) dimDomain.getFirst()).longValue(),
+                  ((Number) dimDomain.getSecond()).longValue()));
+        }
+      } else {
+        for (List<Range> ranges : pushedRanges) {
+          if (ranges.size() != ndim) {
+            return;
+          }
+          dimensionBounds.add(
+              Arrays.asList(
+                  ((Number) ranges.get(i).getFirst()).longValue(),
+                  ((Number) ranges.get(i).getSecond()).longValue()));
+        }
+      }
+      bounds.add(
+          dimensionBounds
+              .stream()
+              .map(b -> new long[] {b.get(0), b.get(1)})
+              .collect(Collectors.toList()));
+    }
+
+    // first phase, collect the coordinates of the matching cells
+    metricsUpdater.startTimer(queryLateMaterializationProbeTimerName);
+    long[][] coordinates = new long[ndim][1024];
+    int numCells = 0;
+    TileDBDataSourceOptions probeOptions = options.withoutReadModes();
+    TileDBDataReaderPartitionScan probe =
+        new TileDBDataReaderPartitionScan(
+            arrayURI,
+            dimensions,
+            probeOptions,
+            pushedRanges,
+            openTimestamp,
+            attributeFilters,
+            false);
+    try {
+      long estimatedCells = probe.estimateCells();
+      while (probe.next()) {
+        ColumnarBatch batch = probe.get();
+        int numRows = batch.numRows();
+        long matchingCells = numCells + numRows;
+        if (probe.cellsRead < estimatedCells) {
+          // assume the cells not read yet match as often as the cells read so far
+          matchingCells = (long) ((double) matchingCells / probe.cellsRead * estimatedCells);
+        }
+        if (matchingCells > TileDBLateMaterialization.MAX_CELLS) {
+          log.info(
+              "Filters of "
+                  + arrayURI
+                  + " match about "
+                  + matchingCells
+                  + " cells, too many for late materialization, reading the partition in full");
+          metricsUpdater.incrementCounter(queryLateMaterializationFallbackCounterName);
+          return;
+        }
+        for (int i = 0; i < ndim; i++) {
+          if (coordinates[i].length < numCells + numRows) {
+            coordinates[i] =
+                Arrays.copyOf(
+                    coordinates[i], Math.max(2 * coordinates[i].length, numCells + numRows));
+          }
+          ColumnVector column = batch.column(i);
+          DataType type = dimensions.fields()[i].dataType();
+          for (int row = 0; row < numRows; row++) {
+            coordinates[i][numCells + row] = getCoordinate(column, type, row);
+          }
+        }
+        numCells += numRows;
+      }
+    } finally {
+      probe.close();
+      metricsUpdater.finish(queryLateMaterializationProbeTimerName);
+    }
+
+    if (numCells == 0) {
+      noMatchingCells = true;
+      return;
+    }
+
+    // second phase ranges around the matching cells, within the partition bounds
+    int maxRanges = arraySchema.isSparse() ? TileDBLateMaterialization.MAX_RANGES : 1;
+    List<List<Range>> dimensionRanges = new ArrayList<>(ndim);
+    for (int i = 0; i < ndim; i++) {
+      List<long[]> ranges =
+          TileDBLateMaterialization.intersect(
+              TileDBLateMaterialization.coalesce(coordinates[i], numCells, maxRanges),
+              bounds.get(i));
+      List<Range> narrowed = new ArrayList<>(ranges.size());
+      for (long[] range : ranges) {
+        narrowed.add(TileDBLateMaterialization.toRange(range, coordinateTypes[i]));
+      }
+      dimensionRanges.add(narrowed);
+    }
+    pushedRanges = TileDBLateMaterialization.toSubarrays(dimensionRanges);
+    log.debug(
+        "Late materialization of "
+            + arrayURI
+            + " reads "
+            + numCells
+            + " matching cells over "
+            + pushedRanges.size()
+            + " subarrays");
+  }
+
+  /**
+   * Estimate the number of cells of the scan from the TileDB result size estimate of the first
+   * field read from the query buffers
+   *
+   * @return estimated number of cells, 0 if no field is read from the query buffers
+   * @throws TileDBError A TileDB exception
+   */
+  private long estimateCells() throws TileDBError {
+    if (query == null) {
+      return 0;
+    }
+    for (int i = 0; i < fieldNames.size(); i++) {
+      if (isDenseCoordinate(i)) {
+        continue;
+      }
+      String name = fieldNames.get(i);
+      if (fieldVar[i]) {
+        return query.getEstResultSizeVar(ctx, name).getFirst() / TILEDB_UINT64.getNativeSize();
+      }
+      return query.getEstResultSize(ctx, name)
+          / (fieldTypes[i].getNativeSize() * fieldCellValNums[i]);
+    }
+    return 0;
+  }
+
+  private static long getCoordinate(ColumnVector column, DataType type, int rowId) {
+    if (type == DataTypes.ByteType) {
+      return column.getByte(rowId);
+    } else if (type == DataTypes.ShortType) {
+      return column.getShort(rowId);
+    } else if (type == DataTypes.IntegerType) {
+      return column.getInt(rowId);
+    }
+    return column.getLong(rowId);
+  }
+
+  private static boolean isIntegerType(Datatype type) {
+    switch (type) {
+      case TILEDB_INT8:
+      case TILEDB_INT16:
+      case TILEDB_UINT8:
+      case TILEDB_INT32:
+      case TILEDB_UINT16:
+      case TILEDB_INT64:
+      case TILEDB_UINT32:
+      case TILEDB_UINT64:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @param index query field index
+   * @return true if the field is a dense dimension column computed instead of read
+   */
+  private boolean isDenseCoordinate(int index) {
+    return denseCoordinates != null && denseCoordinates[index] != null;
+  }
+
+  /**
+   * Pick the dimension read to count the cells of a scan without projected columns, the fixed size
+   * dimension with the smallest cells has the smallest buffer
+   *
+   * @return dimension name
+   * @throws TileDBError A TileDB exception
+   */
+  private String countDimensionName() throws TileDBError {
+    String name = null;
+    long smallestCellSize = Long.MAX_VALUE;
+    for (int i = 0; i < domain.getNDim(); i++) {
+      try (Dimension dim = domain.getDimension(i)) {
+        if (name == null) {
+          name = dim.getName();
+        }
+        if (!dim.isVar()) {
+          long cellSize = dim.getType().getNativeSize() * dim.getCellValNum();
+          if (cellSize < smallestCellSize) {
+            smallestCellSize = cellSize;
+            name = dim.getName();
+          }
+        }
+      }
+    }
+    return name;
+  }
+
   /**
    * calculates the actual byte sizes of the results from the last invocation of query.submit()
    *
    * @return size in bytes of results
-   * @throws TileDBError on error
    */
-  private long calculateResultByteSize() throws TileDBError {
+  private long calculateResultByteSize() {
     long resultBytes = 0;
-    HashMap<String, Pair<Long, Long>> resultBufferElements = query.resultBufferSizes();
-    for (Map.Entry<String, Pair<Long, Long>> elementCount : resultBufferElements.entrySet()) {
+    for (Map.Entry<String, Pair<Long, Long>> elementCount : resultBufferSizes.entrySet()) {
       if (elementCount.getValue().getFirst() != null) {
         resultBytes += elementCount.getValue().getFirst();
       }
@@ -267,31 +807,95 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     return resultBytes;
   }
 
+  /**
+   * Swap the query to the spare buffer set and submit it on a background thread. The buffers
+   * holding the results of the last submission are left untouched until the next call to next().
+   *
+   * @throws TileDBError A TileDB exception
+   */
+  private void submitAsync() throws TileDBError {
+    ArrayList<Pair<NativeArray, NativeArray>> nextBuffers = spareBuffers;
+    spareBuffers = queryBuffers;
+    queryBuffers = nextBuffers;
+    setQueryBuffers(queryBuffers);
+
+    pendingSubmit = submitExecutor.submit(() -> query.submit());
+  }
+
+  /**
+   * Wait for the background submission to complete. The native submission cannot be interrupted, if
+   * the task is killed we still wait for it so the query buffers can be released safely.
+   *
+   * @throws TileDBError A TileDB exception
+   */
+  private void awaitPendingSubmit() throws TileDBError {
+    if (pendingSubmit == null) {
+      return;
+    }
+    metricsUpdater.startTimer(queryWaitSubmitTimerName);
+    try {
+      pendingSubmit.get();
+    } catch (InterruptedException err) {
+      // keep waiting, the query buffers are in use until the native submission returns
+      awaitUninterruptibly(pendingSubmit);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException err) {
+      throw new TileDBError(err.getCause().getMessage());
+    } finally {
+      pendingSubmit = null;
+      metricsUpdater.finish(queryWaitSubmitTimerName);
+    }
+  }
+
+  private static void awaitUninterruptibly(Future<?> future) {
+    while (true) {
+      try {
+        future.get();
+        return;
+      } catch (InterruptedException err) {
+        // retry
+      } catch (ExecutionException err) {
+        return;
+      }
+    }
+  }
+
   @Override
   public void close() {
+    // a pending background submission still writes into the query buffers
+    if (pendingSubmit != null) {
+      awaitUninterruptibly(pendingSubmit);
+      pendingSubmit = null;
+    }
+
     if (resultBatch != null) {
       resultBatch.close();
     }
 
     closeQueryNativeArrays();
     queryBuffers.clear();
+    memoryConsumer.releaseAll();
 
     if (query != null) {
       query.close();
     }
-    if (arraySchema != null) {
-      arraySchema.close();
-    }
-    if (array != null) {
-      array.close();
+    // the array (and the schema it owns) and context are released back to the cache
+    if (arrayLease != null) {
+      arrayLease.close();
     }
-    if (ctx != null) {
-      ctx.close();
+    if (ctxLease != null) {
+      ctxLease.close();
     }
 
     // Close out spark buffers
     closeOnHeapColumnVectors();
 
+    if (arrowAllocator != null) {
+      arrowAllocator.close();
+    }
+
+    logColumnCopyDurations();
+
     // Finish timer
     double duration = metricsUpdater.finish(queryReadTimerName) / 1000000000d;
     log.debug("duration of read-to-close" + task.toString() + " : " + duration + "s");
@@ -312,14 +916,24 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     // Create query and set the subarray for this partition
     query = new Query(array, QueryType.TILEDB_READ);
 
-    // Pushdown any ranges
+    // Pushdown any ranges, the subarrays of a packed partition share all ranges but on one
+    // dimension, so each distinct range is added once to read their union
     if (pushedRanges.size() > 0) {
+      List<Set<Range>> dimensionRanges = new ArrayList<>();
       for (List<Range> ranges : pushedRanges) {
-        int i = 0;
-        for (Range range : ranges) {
-          if (arraySchema.getDomain().getDimension(i).isVar())
-            query.addRangeVar(i++, range.getFirst().toString(), range.getSecond().toString());
-          else query.addRange(i++, range.getFirst(), range.getSecond());
+        for (int i = 0; i < ranges.size(); i++) {
+          if (dimensionRanges.size() <= i) {
+            dimensionRanges.add(new LinkedHashSet<>());
+          }
+          dimensionRanges.get(i).add(ranges.get(i));
+        }
+      }
+      for (int i = 0; i < dimensionRanges.size(); i++) {
+        boolean isVar = arraySchema.getDomain().getDimension(i).isVar();
+        for (Range range : dimensionRanges.get(i)) {
+          if (isVar)
+            query.addRangeVar(i, range.getFirst().toString(), range.getSecond().toString());
+          else query.addRange(i, range.getFirst(), range.getSecond());
         }
       }
     }
@@ -327,13 +941,70 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     // set query read layout
     setOptionQueryLayout(options.getArrayLayout());
 
-    allocateQuerybuffers(this.read_query_buffer_size);
+    bufferSizes = reserveBufferMemory(computeBufferSizes());
+    allocateQuerybuffers(bufferSizes);
 
     // est that there are resuts, so perform a read for this partition
     metricsUpdater.finish(queryInitTimerName);
     return true;
   }
 
+  /**
+   * Reserve the memory of the read buffers with the task memory manager. When less memory is
+   * granted the buffers are shrunk to the granted bytes, so the query returns its results in more
+   * batches.
+   *
+   * @param sizes (offsets, values) buffer sizes in bytes indexed by the query field indexes
+   * @return buffer sizes fitting the granted memory, floored at the minimum read buffer size
+   */
+  private List<Pair<Long, Long>> reserveBufferMemory(List<Pair<Long, Long>> sizes) {
+    long requested = 0;
+    for (Pair<Long, Long> size : sizes) {
+      requested += size.getSecond() + (size.getFirst() != null ? size.getFirst() : 0);
+    }
+    // the spare buffers of background submissions have the same sizes
+    if (options.getReadAsyncSubmit()) {
+      requested *= 2;
+    }
+    memoryConsumer.releaseAll();
+    long granted = memoryConsumer.acquireMemory(requested);
+    if (granted >= requested) {
+      return sizes;
+    }
+    log.info(
+        "Task memory manager granted "
+            + granted
+            + " of "
+            + requested
+            + " bytes, shrinking read buffers");
+    return scaleBufferSizes(sizes, (double) granted / requested);
+  }
+
+  /**
+   * Scale buffer sizes down proportionally, floored at the minimum read buffer size
+   *
+   * @param sizes (offsets, values) buffer sizes in bytes indexed by the query field indexes
+   * @param scale scale factor between 0 and 1
+   * @return scaled buffer sizes
+   */
+  private List<Pair<Long, Long>> scaleBufferSizes(List<Pair<Long, Long>> sizes, double scale) {
+    List<Pair<Long, Long>> scaledSizes = new ArrayList<>(sizes.size());
+    for (int i = 0; i < sizes.size(); i++) {
+      Pair<Long, Long> size = sizes.get(i);
+      if (isDenseCoordinate(i)) {
+        scaledSizes.add(size);
+        continue;
+      }
+      Long offsetsSize =
+          size.getFirst() != null
+              ? Math.max((long) (size.getFirst() * scale), MIN_READ_BUFFER_SIZE)
+              : null;
+      long valuesSize = Math.max((long) (size.getSecond() * scale), MIN_READ_BUFFER_SIZE);
+      scaledSizes.add(new Pair<>(offsetsSize, valuesSize));
+    }
+    return scaledSizes;
+  }
+
   /**
    * Function to calculate the bytes read based on the buffer sizes
    *
@@ -343,7 +1014,11 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     long totalBufferSizes = 0;
     long bufferCount = 0;
     long largestSingleBuffer = 0;
-    for (Pair<NativeArray, NativeArray> bufferPair : queryBuffers) {
+    List<Pair<NativeArray, NativeArray>> allBuffers = new ArrayList<>(queryBuffers);
+    if (spareBuffers != null) {
+      allBuffers.addAll(spareBuffers);
+    }
+    for (Pair<NativeArray, NativeArray> bufferPair : allBuffers) {
       NativeArray offsets = bufferPair.getFirst();
       NativeArray values = bufferPair.getSecond();
       if (values != null) {
@@ -371,27 +1046,23 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
   }
 
   /**
-   * Check if we can double the buffer, or if there is not enough memory space
+   * Check if we can double the buffers, the task memory manager must grant the additional memory
    *
-   * @return
+   * @return true if the additional memory was acquired
    */
   private boolean canReallocBuffers() {
-    long freeMemory = this.hardwareAbstractionLayer.getMemory().getAvailable();
-
     long totalBufferSizes = calculateNativeArrayByteSizes();
 
+    boolean granted = memoryConsumer.tryAcquire(totalBufferSizes);
     log.info(
         "Checking to realloc buffers from "
             + totalBufferSizes
             + " to "
             + 2 * totalBufferSizes
-            + " with "
-            + freeMemory
-            + " memory free");
-
-    // If we are going to double the buffers we need to make sure we have 4x space for
-    // doubling the native buffer and copying to java arrays
-    return freeMemory > (4 * totalBufferSizes);
+            + ", "
+            + (granted ? "granted" : "denied")
+            + " by the task memory manager");
+    return granted;
   }
 
   private void reallocateQueryBuffers() throws TileDBError {
@@ -406,67 +1077,374 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     // Reset
     query.resetBuffers();
 
-    this.read_query_buffer_size *= 2;
+    List<Pair<Long, Long>> doubledSizes = new ArrayList<>(bufferSizes.size());
+    for (Pair<Long, Long> size : bufferSizes) {
+      doubledSizes.add(
+          new Pair<>(size.getFirst() != null ? 2 * size.getFirst() : null, 2 * size.getSecond()));
+    }
+    bufferSizes = doubledSizes;
 
     // Close out spark buffers
     closeOnHeapColumnVectors();
 
-    allocateQuerybuffers(this.read_query_buffer_size);
+    // return the old buffers to the pool before acquiring the larger ones
+    closeQueryNativeArrays();
+
+    allocateQuerybuffers(bufferSizes);
   }
 
-  private void allocateQuerybuffers(long readBufferSize) throws TileDBError {
-    metricsUpdater.startTimer(queryAllocBufferTimerName);
-    // Create coordinate buffers
-    int minDimDize = Integer.MAX_VALUE;
-    for (Dimension dimension : arraySchema.getDomain().getDimensions()) {
-      int nativeSize = dimension.getType().getNativeSize();
-      if (nativeSize < minDimDize) minDimDize = nativeSize;
+  /**
+   * Compute the (offsets, values) buffer sizes in bytes of every query field. An explicit
+   * read_buffer_size is used for all buffers, otherwise the buffers are sized from the TileDB
+   * result size estimates of the partition ranges and scaled down to fit the read memory budget.
+   *
+   * @return (offsets, values) buffer sizes indexed by the query field indexes
+   * @throws TileDBError A TileDB exception
+   */
+  private List<Pair<Long, Long>> computeBufferSizes() throws TileDBError {
+    List<Pair<Long, Long>> sizes = new ArrayList<>(fieldNames.size());
+    if (options.hasReadBufferSize()) {
+      for (int i = 0; i < fieldNames.size(); i++) {
+        if (isDenseCoordinate(i)) {
+          sizes.add(new Pair<>(null, 0L));
+          continue;
+        }
+        boolean isVar = fieldVar[i];
+        sizes.add(new Pair<>(isVar ? read_query_buffer_size : null, read_query_buffer_size));
+      }
+      return capToLimit(sizes);
     }
 
-    int ncoords = Math.toIntExact(readBufferSize / minDimDize);
+    long totalSize = 0;
+    for (int i = 0; i < fieldNames.size(); i++) {
+      String name = fieldNames.get(i);
+      Pair<Long, Long> size;
+      if (isDenseCoordinate(i)) {
+        // computed from the subarray, no buffer is needed
+        size = new Pair<>(null, 0L);
+      } else if (fieldVar[i]) {
+        Pair<Long, Long> est = query.getEstResultSizeVar(ctx, name);
+        size =
+            new Pair<>(
+                Math.max(est.getFirst(), MIN_READ_BUFFER_SIZE),
+                Math.max(est.getSecond(), MIN_READ_BUFFER_SIZE));
+        totalSize += size.getFirst();
+      } else {
+        size = new Pair<>(null, Math.max(query.getEstResultSize(ctx, name), MIN_READ_BUFFER_SIZE));
+      }
+      totalSize += size.getSecond();
+      sizes.add(size);
+    }
 
-    // loop over all attributes and set the query buffers based on buffer size
-    // the query object handles the lifetime of the allocated (offheap) NativeArrays
-    int i = 0;
+    // the spare buffers for background submissions are taken out of the same budget
+    long budget = options.getReadMemoryBudget();
+    if (options.getReadAsyncSubmit()) {
+      budget /= 2;
+    }
+    if (totalSize <= budget) {
+      return capToLimit(sizes);
+    }
 
-    for (String fieldName : fieldNames) {
-      // get the spark column name and match to array schema
-      String name = fieldName;
-      Boolean isVar;
-      Datatype type;
+    // scale all buffers down proportionally, the query returns the results in several batches
+    List<Pair<Long, Long>> scaledSizes = scaleBufferSizes(sizes, (double) budget / totalSize);
+    log.debug(
+        "Scaled read buffers of " + totalSize + " estimated bytes to the budget of " + budget);
+    return capToLimit(scaledSizes);
+  }
 
-      if (domain.hasDimension(name)) {
-        Dimension dim = domain.getDimension(name);
-        type = dim.getType();
-        isVar = dim.isVar();
+  /**
+   * Cap the buffer sizes to the rows of a pushed down limit. The values of variable sized fields
+   * have no fixed size per row and are not capped.
+   *
+   * @param sizes (offsets, values) buffer sizes in bytes indexed by the query field indexes
+   * @return capped buffer sizes
+   * @throws TileDBError A TileDB exception
+   */
+  private List<Pair<Long, Long>> capToLimit(List<Pair<Long, Long>> sizes) throws TileDBError {
+    if (readLimit == Long.MAX_VALUE) {
+      return sizes;
+    }
+    List<Pair<Long, Long>> cappedSizes = new ArrayList<>(sizes.size());
+    for (int i = 0; i < fieldNames.size(); i++) {
+      Pair<Long, Long> size = sizes.get(i);
+      if (size.getFirst() != null) {
+        long offsetsSize = Math.min(size.getFirst(), readLimit * TILEDB_UINT64.getNativeSize());
+        cappedSizes.add(new Pair<>(offsetsSize, size.getSecond()));
       } else {
-        Attribute attr = arraySchema.getAttribute(name);
-        type = attr.getType();
-        isVar = attr.isVar();
-      }
-
-      int nvalues = Math.toIntExact(readBufferSize / type.getNativeSize());
-      NativeArray data = new NativeArray(ctx, nvalues, type);
-      // attribute is variable length, init the varlen result buffers using the est num offsets
-      if (isVar) {
-        int noffsets = Math.toIntExact(readBufferSize / TILEDB_UINT64.getNativeSize());
-        NativeArray offsets = new NativeArray(ctx, noffsets, TILEDB_UINT64);
-        query.setBuffer(name, offsets, data);
-        queryBuffers.set(i++, new Pair<>(offsets, data));
+        long cellSize = fieldCellValNums[i] * fieldTypes[i].getNativeSize();
+        cappedSizes.add(new Pair<>(null, Math.min(size.getSecond(), readLimit * cellSize)));
+      }
+    }
+    return cappedSizes;
+  }
+
+  private void allocateQuerybuffers(List<Pair<Long, Long>> sizes) throws TileDBError {
+    metricsUpdater.startTimer(queryAllocBufferTimerName);
+
+    queryBuffers = allocateBufferSet(sizes);
+    setQueryBuffers(queryBuffers);
+    resultBuffers = queryBuffers;
+
+    // second buffer set filled by background submissions while a batch is consumed
+    if (options.getReadAsyncSubmit()) {
+      spareBuffers = allocateBufferSet(sizes);
+    }
+
+    // a submission stops when any buffer is full, the smallest buffer bounds the number of rows
+    int ncoords = Integer.MAX_VALUE;
+    for (int i = 0; i < fieldNames.size(); i++) {
+      if (isDenseCoordinate(i)) {
+        continue;
+      }
+      Pair<NativeArray, NativeArray> buffer = queryBuffers.get(i);
+      int cells;
+      if (buffer.getFirst() != null) {
+        cells = buffer.getFirst().getSize();
       } else {
-        // attribute is fixed length, use the result size estimate for allocation
-        query.setBuffer(name, new NativeArray(ctx, nvalues, type));
-        queryBuffers.set(i++, new Pair<>(null, data));
+        cells = Math.toIntExact(buffer.getSecond().getSize() / fieldCellValNums[i]);
       }
+      ncoords = Math.min(ncoords, cells);
     }
 
     // Allocate result set batch based on the estimated (upper bound) number of rows / cells
-    resultVectors = OnHeapColumnVector.allocateColumns(ncoords, sparkSchema);
-    resultBatch = new ColumnarBatch(resultVectors);
+    if (options.getReadArrowBatches()) {
+      resultVectors = allocateArrowVectors();
+    } else {
+      resultVectors = allocateResultVectors(ncoords);
+    }
+    copiers = createColumnCopiers();
+    if (columnCopyNanos == null) {
+      columnCopyNanos = new long[copiers.length];
+    }
+    ColumnVector[] batchVectors = resultVectors;
+    if (options.getReadLazyColumns()) {
+      lazyVectors = new TileDBLazyColumnVector[resultVectors.length];
+      batchVectors = resultVectors.clone();
+      for (int i = 0; i < resultVectors.length; i++) {
+        if (!isDenseCoordinate(i) && isCopiedColumn(i)) {
+          lazyVectors[i] = new TileDBLazyColumnVector(resultVectors[i]);
+          batchVectors[i] = lazyVectors[i];
+        }
+      }
+    }
+    if (filterEvaluator != null) {
+      selectedVectors = new TileDBSelectedColumnVector[batchVectors.length];
+      for (int i = 0; i < batchVectors.length; i++) {
+        selectedVectors[i] = new TileDBSelectedColumnVector(batchVectors[i]);
+      }
+      resultBatch = new ColumnarBatch(selectedVectors);
+    } else {
+      resultBatch = new ColumnarBatch(batchVectors);
+    }
 
     metricsUpdater.finish(queryAllocBufferTimerName);
   }
 
+  /**
+   * Acquire one set of query buffers for all fields from the executor buffer pool, the buffers hold
+   * at least the requested sizes
+   *
+   * @param sizes (offsets, values) buffer sizes in bytes indexed by the query field indexes
+   * @return (offsets, values) buffers indexed by the query field indexes
+   * @throws TileDBError A TileDB exception
+   */
+  private ArrayList<Pair<NativeArray, NativeArray>> allocateBufferSet(List<Pair<Long, Long>> sizes)
+      throws TileDBError {
+    TileDBNativeArrayPool pool = TileDBNativeArrayPool.getInstance();
+    ArrayList<Pair<NativeArray, NativeArray>> buffers = new ArrayList<>(fieldNames.size());
+    try {
+      for (int i = 0; i < fieldNames.size(); i++) {
+        if (isDenseCoordinate(i)) {
+          buffers.add(new Pair<>(null, null));
+          continue;
+        }
+        Datatype type = fieldTypes[i];
+
+        // hold at least one cell
+        long nvalues =
+            Math.max(sizes.get(i).getSecond() / type.getNativeSize(), fieldCellValNums[i]);
+        Pair<NativeArray, NativeArray> bufferSet = new Pair<>(null, pool.acquire(type, nvalues));
+        buffers.add(bufferSet);
+        // attribute is variable length, init the varlen result buffers using the est num offsets
+        if (sizes.get(i).getFirst() != null) {
+          long noffsets = Math.max(sizes.get(i).getFirst() / TILEDB_UINT64.getNativeSize(), 1);
+          bufferSet.setFirst(pool.acquire(TILEDB_UINT64, noffsets));
+        }
+      }
+    } catch (TileDBError | RuntimeException err) {
+      // the buffers of a partial set are not owned by the scan yet
+      closeNativeArrays(buffers);
+      throw err;
+    }
+    return buffers;
+  }
+
+  /**
+   * Resolve the datatype, var-ness and cell value number of every query field once, the batch hot
+   * path does not call into the array schema
+   *
+   * @throws TileDBError A TileDB exception
+   */
+  private void loadFieldMetadata() throws TileDBError {
+    int n = fieldNames.size();
+    fieldTypes = new Datatype[n];
+    fieldVar = new boolean[n];
+    fieldCellValNums = new long[n];
+    for (int i = 0; i < n; i++) {
+      String name = fieldNames.get(i);
+      if (domain.hasDimension(name)) {
+        try (Dimension dim = domain.getDimension(name)) {
+          fieldTypes[i] = dim.getType();
+          fieldVar[i] = dim.isVar();
+          fieldCellValNums[i] = dim.isVar() ? 1 : dim.getCellValNum();
+        }
+      } else if (arraySchema.hasAttribute(name)) {
+        try (Attribute attr = arraySchema.getAttribute(name)) {
+          fieldTypes[i] = attr.getType();
+          fieldVar[i] = attr.isVar();
+          fieldCellValNums[i] = attr.isVar() ? 1 : attr.getCellValNum();
+        }
+      } else {
+        throw new TileDBError(
+            "Array " + array.getUri() + " has no attribute/dimension with name " + name);
+      }
+    }
+  }
+
+  /**
+   * Set a buffer set as the query buffers, the query fills these on the next submission
+   *
+   * @param buffers (offsets, values) buffers indexed by the query field indexes
+   * @throws TileDBError A TileDB exception
+   */
+  private void setQueryBuffers(ArrayList<Pair<NativeArray, NativeArray>> buffers)
+      throws TileDBError {
+    for (int i = 0; i < fieldNames.size(); i++) {
+      if (isDenseCoordinate(i)) {
+        continue;
+      }
+      Pair<NativeArray, NativeArray> buffer = buffers.get(i);
+      if (buffer.getFirst() != null) {
+        query.setBuffer(fieldNames.get(i), buffer.getFirst(), buffer.getSecond());
+      } else {
+        query.setBuffer(fieldNames.get(i), buffer.getSecond());
+      }
+    }
+  }
+
+  /**
+   * Allocate the Spark column vectors for the projected schema. Fixed size scalar and var-length
+   * string columns are read in place from the query buffers, every other column is copied into an
+   * on heap vector.
+   *
+   * @param ncoords upper bound of the number of rows for the on heap vectors
+   * @return column vectors indexed by the projected schema field indexes
+   * @throws TileDBError A TileDB exception
+   */
+  private ColumnVector[] allocateResultVectors(int ncoords) throws TileDBError {
+    StructField[] fields = sparkSchema.fields();
+    ColumnVector[] vectors = new ColumnVector[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      if (isDenseCoordinate(i)) {
+        long[] coordinates = denseCoordinates[i];
+        vectors[i] =
+            new TileDBDenseCoordinateVector(
+                fields[i].dataType(), coordinates[0], coordinates[1], coordinates[2]);
+        continue;
+      }
+      String name = fields[i].name();
+      if (fields[i].dataType().equals(DataTypes.StringType) && fieldVar[i]) {
+        // strings are read in place from the var-length query buffers
+        vectors[i] = new TileDBNativeStringVector(fields[i].dataType());
+        continue;
+      }
+      Datatype type = fieldTypes[i];
+      if (!fieldVar[i] && fieldCellValNums[i] == 1 && TileDBNativeColumnVector.isSupported(type)) {
+        TileDBNativeColumnVector vector = new TileDBNativeColumnVector(fields[i].dataType(), type);
+        try {
+          vector.setBuffer(queryBuffers.get(i).getSecond());
+          vectors[i] = vector;
+          continue;
+        } catch (TileDBError err) {
+          log.warn("Falling back to on heap copy for column " + name + ": " + err.getMessage());
+        }
+      }
+      if (!fieldVar[i] && fieldCellValNums[i] > 1 && fields[i].dataType() instanceof ArrayType) {
+        // fixed size arrays are located from the row index, without per-row offsets
+        vectors[i] =
+            new TileDBFixedArrayVector(
+                (ArrayType) fields[i].dataType(), ncoords, Math.toIntExact(fieldCellValNums[i]));
+        continue;
+      }
+      vectors[i] = new OnHeapColumnVector(ncoords, fields[i].dataType());
+    }
+    return vectors;
+  }
+
+  /**
+   * Build the copiers of the result vectors, with the field metadata and target vector bound
+   *
+   * @return copiers indexed by the projected schema field indexes, null for the dense coordinate
+   *     columns
+   * @throws TileDBError A TileDB exception
+   */
+  private TileDBColumnCopier[] createColumnCopiers() throws TileDBError {
+    TileDBColumnCopier[] result = new TileDBColumnCopier[resultVectors.length];
+    for (int i = 0; i < resultVectors.length; i++) {
+      ColumnVector vector = resultVectors[i];
+      if (isDenseCoordinate(i)) {
+        continue;
+      } else if (arrowColumns != null) {
+        result[i] = TileDBColumnCopier.forArrowColumn(arrowColumns[i]);
+      } else if (vector instanceof TileDBNativeStringVector) {
+        result[i] = TileDBColumnCopier.forNativeStringVector((TileDBNativeStringVector) vector);
+      } else if (vector instanceof TileDBNativeColumnVector) {
+        result[i] = TileDBColumnCopier.forNativeVector((TileDBNativeColumnVector) vector);
+      } else if (vector instanceof TileDBFixedArrayVector) {
+        result[i] =
+            TileDBColumnCopier.forFixedArrayVector((TileDBFixedArrayVector) vector, fieldTypes[i]);
+      } else {
+        result[i] =
+            TileDBColumnCopier.forVector(
+                (WritableColumnVector) vector, fieldTypes[i], fieldVar[i], fieldCellValNums[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Allocate Arrow backed Spark column vectors for the projected schema, sized to hold the full
+   * contents of the query buffers
+   *
+   * @return column vectors indexed by the projected schema field indexes
+   * @throws TileDBError A TileDB exception
+   */
+  private ColumnVector[] allocateArrowVectors() throws TileDBError {
+    if (arrowAllocator == null) {
+      arrowAllocator =
+          ArrowUtils.rootAllocator()
+              .newChildAllocator(
+                  "tiledb-read-" + task.taskAttemptId() + "-" + arrayURI, 0, Long.MAX_VALUE);
+    }
+    StructField[] fields = sparkSchema.fields();
+    ColumnVector[] vectors = new ColumnVector[fields.length];
+    arrowColumns = new TileDBArrowColumn[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      Datatype type = fieldTypes[i];
+      long cellValNum = fieldCellValNums[i];
+      boolean isVar = fieldVar[i];
+      NativeArray offsets = queryBuffers.get(i).getFirst();
+      NativeArray data = queryBuffers.get(i).getSecond();
+      int maxRows = isVar ? offsets.getSize() : Math.toIntExact(data.getSize() / cellValNum);
+      TileDBArrowColumn column =
+          new TileDBArrowColumn(fields[i], type, cellValNum, isVar, arrowAllocator);
+      column.allocate(maxRows, data.getSize());
+      arrowColumns[i] = column;
+      vectors[i] = column.getColumnVector();
+    }
+    return vectors;
+  }
+
   private void setOptionQueryLayout(Optional<Layout> layoutOption) throws TileDBError {
     if (arraySchema.isSparse()) {
       // sparse, set to array unordered (fastest) if not defined
@@ -494,262 +1472,89 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
   }
 
   /**
-   * For a given Spark field name, dispatch between attribute and dimension buffer copying
-   *
-   * @param field Spark field to copy query result set
    * @param index Spark field index in the projected schmema
-   * @return number of values copied into the columnar batch result buffers
-   * @throws TileDBError A TileDB exception
+   * @return true if the results of the field are copied into its vector, the other vectors only
+   *     bind the query buffers and are not worth a parallel copy
    */
-  private int getColumnBatch(StructField field, int index) throws TileDBError {
-    String name = field.name();
-
-    Datatype dataType;
-    long cellValNum;
-    boolean isVar;
-
-    if (arraySchema.hasAttribute(name)) {
-      Attribute attribute = arraySchema.getAttribute(name);
-      dataType = attribute.getType();
-      cellValNum = attribute.getCellValNum();
-      isVar = attribute.isVar();
-    } else if (domain.hasDimension(name)) {
-      Dimension dimension = domain.getDimension(name);
-      dataType = dimension.getType();
-      cellValNum = dimension.getCellValNum();
-      isVar = dimension.isVar();
-    } else {
-      throw new TileDBError(
-          "Array " + array.getUri() + " has no attribute/dimension with name " + name);
-    }
-
-    if (cellValNum > 1) {
-      return getVarLengthAttributeColumn(name, dataType, isVar, cellValNum, index);
-    } else {
-      return getScalarValueColumn(name, dataType, index);
-    }
+  private boolean isCopiedColumn(int index) {
+    return arrowColumns == null
+        && !(resultVectors[index] instanceof TileDBNativeColumnVector)
+        && !(resultVectors[index] instanceof TileDBNativeStringVector);
   }
 
-  private int getScalarValueColumn(String name, Datatype dataType, int index) throws TileDBError {
-
-    metricsUpdater.startTimer(queryGetScalarAttributeTimerName);
-    int numValues;
-    int bufferLength;
-    switch (dataType) {
-      case TILEDB_FLOAT32:
-        {
-          float[] buff = (float[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putFloats(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_FLOAT64:
-        {
-          double[] buff = (double[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putDoubles(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_INT8:
-      case TILEDB_CHAR:
-        {
-          byte[] buff = (byte[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putBytes(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_INT16:
-      case TILEDB_UINT8:
-        {
-          short[] buff = (short[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putShorts(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_INT32:
-      case TILEDB_UINT16:
-        {
-          int[] buff = (int[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putInts(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_INT64:
-      case TILEDB_UINT32:
-      case TILEDB_UINT64:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putLongs(0, bufferLength, buff, 0);
-          }
-          break;
-        }
-      case TILEDB_DATETIME_DAY:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          int[] buffConverted = Arrays.stream(buff).mapToInt(i -> ((Long) i).intValue()).toArray();
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putInts(0, bufferLength, buffConverted, 0);
-          }
+  /**
+   * Wait for all the columns copied on the column pool. The copies read the query buffers, if the
+   * task is killed we still wait for them so the buffers can be released safely.
+   *
+   * @param copies column copies
+   * @return number of values copied by the last column
+   * @throws TileDBError A TileDB exception
+   */
+  private int awaitColumnCopies(List<Future<Integer>> copies) throws TileDBError {
+    int nRows = 0;
+    boolean interrupted = false;
+    Throwable failure = null;
+    for (Future<Integer> copy : copies) {
+      while (true) {
+        try {
+          nRows = copy.get();
           break;
-        }
-      case TILEDB_DATETIME_MS:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          numValues = bufferLength;
-          if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putLongs(0, bufferLength, buff, 0);
-          }
+        } catch (InterruptedException err) {
+          interrupted = true;
+        } catch (ExecutionException err) {
+          failure = failure != null ? failure : err.getCause();
           break;
         }
-      default:
-        {
-          throw new TileDBError("Not supported getDomain getType " + dataType);
-        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
     }
-    metricsUpdater.finish(queryGetScalarAttributeTimerName);
-    return numValues;
+    if (failure instanceof TileDBError) {
+      throw (TileDBError) failure;
+    } else if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+    return nRows;
   }
 
-  private int getVarLengthAttributeColumn(
-      String name, Datatype dataType, boolean isVar, long cellValNum, int index)
-      throws TileDBError {
-    metricsUpdater.startTimer(queryGetVariableLengthAttributeTimerName);
-    int numValues = 0;
-    int bufferLength = 0;
-    // reset columnar batch start index
-    resultVectors[index].reset();
-    resultVectors[index].getChild(0).reset();
-    switch (dataType) {
-      case TILEDB_FLOAT32:
-        {
-          float[] buff = (float[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putFloats(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_FLOAT64:
-        {
-          double[] buff = (double[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putDoubles(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_INT8:
-      case TILEDB_CHAR:
-        // string types that don't require any re-encoding to Spark UTF-8 representation supported
-        // for now
-      case TILEDB_STRING_ASCII:
-      case TILEDB_STRING_UTF8:
-        {
-          byte[] buff = (byte[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putBytes(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_INT16:
-      case TILEDB_UINT8:
-        {
-          short[] buff = (short[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putShorts(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_INT32:
-      case TILEDB_UINT16:
-        {
-          int[] buff = (int[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putInts(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_INT64:
-      case TILEDB_UINT32:
-      case TILEDB_UINT64:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putLongs(0, bufferLength, buff, 0);
-          break;
-        }
-      case TILEDB_DATETIME_DAY:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          int[] buffConverted = Arrays.stream(buff).mapToInt(i -> ((Long) i).intValue()).toArray();
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putInts(0, bufferLength, buffConverted, 0);
-          break;
-        }
-      case TILEDB_DATETIME_MS:
-        {
-          long[] buff = (long[]) query.getBuffer(name);
-          bufferLength = buff.length;
-          resultVectors[index].getChild(0).reserve(bufferLength);
-          resultVectors[index].getChild(0).putLongs(0, bufferLength, buff, 0);
-          break;
-        }
-      default:
-        {
-          throw new TileDBError("Not supported getDomain getType " + dataType);
-        }
+  /**
+   * Copy the query result set of a field with its copier
+   *
+   * @param field Spark field to copy query result set
+   * @param index Spark field index in the projected schmema
+   * @return number of values copied into the columnar batch result buffers
+   * @throws TileDBError A TileDB exception
+   */
+  private int getColumnBatch(StructField field, int index) throws TileDBError {
+    TileDBColumnCopier copier = copiers[index];
+    long start = System.nanoTime();
+    metricsUpdater.startTimer(copier.timerName());
+    int numRows = copier.copy(resultBuffers.get(index), resultBufferElements.get(field.name()));
+    metricsUpdater.finish(copier.timerName());
+    // a column is copied by a single thread at a time, the copies are awaited before close
+    columnCopyNanos[index] += System.nanoTime() - start;
+    return numRows;
+  }
+
+  /** Log the time spent copying each column of the scan */
+  private void logColumnCopyDurations() {
+    if (columnCopyNanos == null || !log.isDebugEnabled()) {
+      return;
     }
-    if (isVar) {
-      // add var length offsets
-      long[] offsets = query.getVarBuffer(name);
-      numValues = offsets.length;
-      // number of bytes per (scalar) element in
-      int typeSize = dataType.getNativeSize();
-      long numBytes = bufferLength * typeSize;
-      for (int j = 0; j < numValues; j++) {
-        int off1 = Math.toIntExact(offsets[j] / typeSize);
-        int off2 = Math.toIntExact((j < numValues - 1 ? offsets[j + 1] : numBytes) / typeSize);
-        resultVectors[index].putArray(j, off1, off2 - off1);
-      }
-    } else {
-      // fixed sized array attribute
-      int cellNum = (int) cellValNum;
-      numValues = bufferLength / cellNum;
-      for (int j = 0; j < numValues; j++) {
-        resultVectors[index].putArray(j, cellNum * j, cellNum);
+    for (int i = 0; i < columnCopyNanos.length; i++) {
+      if (columnCopyNanos[i] > 0) {
+        double duration = columnCopyNanos[i] / 1000000000d;
+        log.debug(
+            "copy duration of column "
+                + fieldNames.get(i)
+                + " of read task "
+                + task.toString()
+                + " : "
+                + duration
+                + "s");
       }
     }
-    metricsUpdater.finish(queryGetVariableLengthAttributeTimerName);
-    return numValues;
   }
 
   @Deprecated
@@ -759,6 +1564,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
     Dimension dim = domain.getDimension(name);
     Datatype type = dim.getType();
     int ndim = Math.toIntExact(domain.getNDim());
+    WritableColumnVector vector =
+        resultVectors.length > 0 ? (WritableColumnVector) resultVectors[index] : null;
 
     // perform a strided copy for dimension columnar buffers startng a dimIdx offset (slow path)
     switch (type) {
@@ -767,8 +1574,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           float[] buffer = (float[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putFloats(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putFloats(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -777,8 +1584,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           double[] buffer = (double[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putDoubles(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putDoubles(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -787,8 +1594,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           byte[] buffer = (byte[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putBytes(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putBytes(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -798,8 +1605,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           short[] buffer = (short[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putShorts(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putShorts(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -809,8 +1616,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           int[] buffer = (int[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putInts(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putInts(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -821,8 +1628,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           long[] buffer = (long[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putLongs(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putLongs(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -831,8 +1638,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           long[] buffer = (long[]) query.getBuffer(name);
           bufferLength = bufferLength / ndim;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putLongs(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putLongs(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -841,8 +1648,8 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
           long[] buffer = (long[]) query.getBuffer(name);
           bufferLength = buffer.length;
           if (resultVectors.length > 0) {
-            resultVectors[index].reset();
-            resultVectors[index].putLongs(0, bufferLength, buffer, 0);
+            vector.reset();
+            vector.putLongs(0, bufferLength, buffer, 0);
           }
           break;
         }
@@ -858,28 +1665,34 @@ public class TileDBDataReaderPartitionScan implements InputPartitionReader<Colum
 
   /** Close out onheap column vectors */
   private void closeOnHeapColumnVectors() {
+    if (resultVectors == null) {
+      return;
+    }
     // Close the OnHeapColumnVector buffers
-    for (OnHeapColumnVector buff : resultVectors) {
+    for (ColumnVector buff : resultVectors) {
       buff.close();
     }
   }
 
-  /** Close out all the NativeArray objects */
+  /** Release all the NativeArray objects to the buffer pool */
   private void closeQueryNativeArrays() {
     metricsUpdater.startTimer(queryCloseNativeArraysTimerName);
-    for (Pair<NativeArray, NativeArray> bufferSet : queryBuffers) {
+    closeNativeArrays(queryBuffers);
+    Collections.fill(queryBuffers, null);
+    if (spareBuffers != null) {
+      closeNativeArrays(spareBuffers);
+      spareBuffers = null;
+    }
+    metricsUpdater.finish(queryCloseNativeArraysTimerName);
+  }
+
+  private static void closeNativeArrays(List<Pair<NativeArray, NativeArray>> buffers) {
+    for (Pair<NativeArray, NativeArray> bufferSet : buffers) {
       if (bufferSet == null) {
         continue;
       }
-      NativeArray offsetArray = bufferSet.getFirst();
-      NativeArray valuesArray = bufferSet.getSecond();
-      if (offsetArray != null) {
-        offsetArray.close();
-      }
-      if (valuesArray != null) {
-        valuesArray.close();
-      }
+      TileDBNativeArrayPool.getInstance().release(bufferSet.getFirst());
+      TileDBNativeArrayPool.getInstance().release(bufferSet.getSecond());
     }
-    metricsUpdater.finish(queryCloseNativeArraysTimerName);
   }
 }
@@ -16,6 +16,28 @@ public class TileDBDataSourceOptions implements Serializable {
   private static final int QUERY_BUFFER_SIZE = 1024 * 1024 * 10;
   private static final int DEFAULT_PARTITIONS = 10;
 
+  // Read buffer memory budget per partition in bytes, held by every concurrent task of an
+  // executor (default 64mb)
+  private static final long READ_MEMORY_BUDGET = 1024L * 1024 * 64;
+
+  // Read modes and pushed operators dropped by withoutReadModes()
+  private static final List<String> READ_MODE_OPTIONS =
+      Arrays.asList(
+          "read_arrow_batches",
+          "read_async_submit",
+          "read_parallel_columns",
+          "read_lazy_columns",
+          "late_materialization",
+          TileDBLimitPushdownRule.LIMIT_OPTION,
+          TileDBAggregatePushdownRule.AGGREGATE_OPTION);
+
+  // Time in ms cached array metadata is reused without validation (default 0, always validated)
+  private static final long METADATA_CACHE_TTL = 0;
+
+  // Partition planners, see getPartitionPlanner()
+  private static final List<String> PARTITION_PLANNERS =
+      Arrays.asList("volume", "fragments", "sampling");
+
   // we need to serialize the options to each partition reader / writer
   // DataSourceOptions is not serializable so we convert to a Java HashMap
   private HashMap<String, String> optionMap;
@@ -49,6 +71,20 @@ public class TileDBDataSourceOptions implements Serializable {
     return QUERY_BUFFER_SIZE;
   }
 
+  /** @return true if the read buffer size was set explicitly * */
+  public boolean hasReadBufferSize() {
+    return optionMap.containsKey("read_buffer_size");
+  }
+
+  /** @return Memory budget in bytes of the read buffers of a partition * */
+  public long getReadMemoryBudget() {
+    Optional<Long> budget = tryParseOptionKeyLong(optionMap, "read_memory_budget");
+    if (budget.isPresent()) {
+      return budget.get();
+    }
+    return READ_MEMORY_BUDGET;
+  }
+
   /** @return Allow read buffers to be reallocated if a query is incomplete due to buffer size * */
   public boolean getAllowReadBufferReallocation() {
     if (optionMap.containsKey("allow_read_buffer_realloc")) {
@@ -57,6 +93,65 @@ public class TileDBDataSourceOptions implements Serializable {
     return true;
   }
 
+  /** @return Hand out Arrow backed columnar batches from the partition readers * */
+  public boolean getReadArrowBatches() {
+    if (optionMap.containsKey("read_arrow_batches")) {
+      return Boolean.parseBoolean(optionMap.get("read_arrow_batches"));
+    }
+    return false;
+  }
+
+  /** @return Submit the next read query in the background while the current batch is consumed * */
+  public boolean getReadAsyncSubmit() {
+    if (optionMap.containsKey("read_async_submit")) {
+      return Boolean.parseBoolean(optionMap.get("read_async_submit"));
+    }
+    return false;
+  }
+
+  /** @return Copy the columns of a batch in parallel on the shared executor column pool * */
+  public boolean getReadParallelColumns() {
+    if (optionMap.containsKey("read_parallel_columns")) {
+      return Boolean.parseBoolean(optionMap.get("read_parallel_columns"));
+    }
+    return false;
+  }
+
+  /** @return Copy the columns of a batch when they are first read by Spark * */
+  public boolean getReadLazyColumns() {
+    if (optionMap.containsKey("read_lazy_columns")) {
+      return Boolean.parseBoolean(optionMap.get("read_lazy_columns"));
+    }
+    return false;
+  }
+
+  /** @return Read the filtered columns first and the other columns only around the matches * */
+  public boolean getLateMaterialization() {
+    if (optionMap.containsKey("late_materialization")) {
+      return Boolean.parseBoolean(optionMap.get("late_materialization"));
+    }
+    return false;
+  }
+
+  /**
+   * @return options of a plain read of the same array, without the read modes, the pushed limit and
+   *     the pushed aggregate
+   */
+  public TileDBDataSourceOptions withoutReadModes() {
+    HashMap<String, String> plainOptions = new HashMap<>(optionMap);
+    plainOptions.keySet().removeAll(READ_MODE_OPTIONS);
+    return new TileDBDataSourceOptions(new DataSourceOptions(plainOptions));
+  }
+
+  /** @return Time in ms cached array metadata is reused without checking the fragments * */
+  public long getMetadataCacheTtl() {
+    Optional<Long> ttl = tryParseOptionKeyLong(optionMap, "metadata_cache_ttl");
+    if (ttl.isPresent()) {
+      return ttl.get();
+    }
+    return METADATA_CACHE_TTL;
+  }
+
   /** @return partition count * */
   public int getPartitionCount() {
     if (optionMap.containsKey("partition_count")) {
@@ -65,6 +160,37 @@ public class TileDBDataSourceOptions implements Serializable {
     return DEFAULT_PARTITIONS;
   }
 
+  /**
+   * @return Partition planner, "volume" splits subarrays by coordinate volume (default),
+   *     "fragments" by the estimated cells of the array fragments and "sampling" by result size
+   *     estimates sampled over a grid *
+   */
+  public String getPartitionPlanner() {
+    if (optionMap.containsKey("partition_planner")) {
+      String val = optionMap.get("partition_planner").toLowerCase();
+      if (!PARTITION_PLANNERS.contains(val)) {
+        throw new IllegalArgumentException(
+            "Unknown partition planner, valid values are " + PARTITION_PLANNERS + ", got: " + val);
+      }
+      return val;
+    }
+    return "volume";
+  }
+
+  /** @return Optional maximum number of rows to read, set by the limit pushdown rule * */
+  public Optional<Long> getReadLimit() {
+    return tryParseOptionKeyLong(optionMap, TileDBLimitPushdownRule.LIMIT_OPTION);
+  }
+
+  /** @return Optional aggregation computed by the partition scans, set by the pushdown rule * */
+  public Optional<TileDBAggregate> getAggregate() {
+    if (optionMap.containsKey(TileDBAggregatePushdownRule.AGGREGATE_OPTION)) {
+      return Optional.of(
+          TileDBAggregate.decode(optionMap.get(TileDBAggregatePushdownRule.AGGREGATE_OPTION)));
+    }
+    return Optional.empty();
+  }
+
   /** @return Optional TileDB.Layout description for overriding dataframe sorted order * */
   public Optional<io.tiledb.java.api.Layout> getArrayLayout() {
     if (optionMap.containsKey("order")) {
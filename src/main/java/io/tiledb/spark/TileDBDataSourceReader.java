@@ -7,6 +7,7 @@ import static org.apache.log4j.Priority.ERROR;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourceBuildRangeFromFilterTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourceCheckAndMergeRangesTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourceComputeNeededSplitsToReduceToMedianVolumeTimerName;
+import static org.apache.spark.metrics.TileDBMetricsSource.dataSourceEstimateStatisticsTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourcePlanBatchInputPartitionsTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourcePruneColumnsTimerName;
 import static org.apache.spark.metrics.TileDBMetricsSource.dataSourcePushFiltersTimerName;
@@ -15,9 +16,12 @@ import static org.apache.spark.metrics.TileDBMetricsSource.dataSourceReadSchemaT
 import io.tiledb.java.api.*;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.IntStream;
 import org.apache.log4j.Logger;
 import org.apache.spark.TaskContext;
@@ -33,6 +37,8 @@ import org.apache.spark.sql.sources.LessThan;
 import org.apache.spark.sql.sources.LessThanOrEqual;
 import org.apache.spark.sql.sources.Or;
 import org.apache.spark.sql.sources.v2.reader.*;
+import org.apache.spark.sql.sources.v2.reader.partitioning.Partitioning;
+import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.vectorized.ColumnarBatch;
 
@@ -40,7 +46,9 @@ public class TileDBDataSourceReader
     implements DataSourceReader,
         SupportsPushDownRequiredColumns,
         SupportsScanColumnarBatch,
-        SupportsPushDownFilters {
+        SupportsPushDownFilters,
+        SupportsReportStatistics,
+        SupportsReportPartitioning {
 
   static Logger log = Logger.getLogger(TileDBDataSourceReader.class.getName());
   private final TileDBReadMetricsUpdater metricsUpdater;
@@ -48,20 +56,53 @@ public class TileDBDataSourceReader
   private URI uri;
   private TileDBReadSchema tileDBReadSchema;
   private TileDBDataSourceOptions tiledbOptions;
-  private Filter[] pushedFilters;
+  private Filter[] pushedFilters = new Filter[0];
+  // filters on attributes evaluated by the partition scans
+  private Filter[] attributeFilters = new Filter[0];
+
+  // aggregation computed by the partition scans, null if the cells are returned
+  private TileDBAggregate aggregate;
+
+  // partitions planned for the current pushdown, shared by the partitioning report and the scan
+  private List<InputPartition<ColumnarBatch>> plannedPartitions;
+  private TileDBDimensionPartitioning plannedPartitioning;
 
   public TileDBDataSourceReader(URI uri, TileDBDataSourceOptions options) {
     this.uri = uri;
     this.tiledbOptions = options;
     this.tileDBReadSchema = new TileDBReadSchema(uri, options);
     this.metricsUpdater = new TileDBReadMetricsUpdater(TaskContext.get());
+
+    Optional<TileDBAggregate> aggregate = options.getAggregate();
+    if (aggregate.isPresent()) {
+      // the filters and columns of a pushed down aggregation are fixed, Spark only sees the
+      // partial results
+      pushFilters(aggregate.get().getFilters());
+      StructType columns = new StructType();
+      for (StructField field : tileDBReadSchema.getTileDBSparkSchema().fields()) {
+        if (aggregate.get().getColumns().contains(field.name())) {
+          columns = columns.add(field);
+        }
+      }
+      tileDBReadSchema.setPushDownSchema(columns);
+      this.aggregate = aggregate.get();
+    }
+  }
+
+  /**
+   * @param name column name
+   * @return true if the column is a dimension of the array
+   */
+  boolean isDimension(String name) {
+    return tileDBReadSchema.getDimensionId(name).isPresent();
   }
 
   @Override
   public StructType readSchema() {
     metricsUpdater.startTimer(dataSourceReadSchemaTimerName);
     log.trace("Reading schema for " + uri);
-    StructType schema = tileDBReadSchema.getSparkSchema();
+    StructType schema =
+        aggregate != null ? aggregate.getPartialSchema() : tileDBReadSchema.getSparkSchema();
     log.trace("Read schema for " + uri + ": " + schema);
     metricsUpdater.finish(dataSourceReadSchemaTimerName);
     return schema;
@@ -69,24 +110,38 @@ public class TileDBDataSourceReader
 
   @Override
   public void pruneColumns(StructType pushDownSchema) {
+    if (aggregate != null) {
+      // all the partial results are returned
+      return;
+    }
     metricsUpdater.startTimer(dataSourcePruneColumnsTimerName);
     log.trace("Set pushdown columns for " + uri + ": " + pushDownSchema);
     tileDBReadSchema.setPushDownSchema(pushDownSchema);
+    resetPlannedPartitions();
     metricsUpdater.finish(dataSourcePruneColumnsTimerName);
   }
 
   @Override
   public Filter[] pushFilters(Filter[] filters) {
+    if (aggregate != null) {
+      // the filters of the aggregation were pushed down already, these are on the partial results
+      return filters;
+    }
     metricsUpdater.startTimer(dataSourcePushFiltersTimerName);
+    resetPlannedPartitions();
     log.trace("size of filters " + filters.length);
     ArrayList<Filter> pushedFiltersList = new ArrayList<>();
+    ArrayList<Filter> attributeFiltersList = new ArrayList<>();
     ArrayList<Filter> leftOverFilters = new ArrayList<>();
 
     // Loop through all filters and check if they are support type and on a domain. If so push them
-    // down
+    // down as subarray ranges, otherwise check if they can be evaluated in the scan
     for (Filter filter : filters) {
       if (checkFilterIsDimensionOnly(filter)) {
         pushedFiltersList.add(filter);
+      } else if (TileDBFilterEvaluator.isSupported(
+          filter, tileDBReadSchema.getTileDBSparkSchema())) {
+        attributeFiltersList.add(filter);
       } else {
         leftOverFilters.add(filter);
       }
@@ -95,6 +150,9 @@ public class TileDBDataSourceReader
     this.pushedFilters = new Filter[pushedFiltersList.size()];
     this.pushedFilters = pushedFiltersList.toArray(this.pushedFilters);
 
+    this.attributeFilters = new Filter[attributeFiltersList.size()];
+    this.attributeFilters = attributeFiltersList.toArray(this.attributeFilters);
+
     Filter[] leftOvers = new Filter[leftOverFilters.size()];
     leftOvers = leftOverFilters.toArray(leftOvers);
     metricsUpdater.finish(dataSourcePushFiltersTimerName);
@@ -154,7 +212,9 @@ public class TileDBDataSourceReader
 
   @Override
   public Filter[] pushedFilters() {
-    return pushedFilters;
+    Filter[] filters = Arrays.copyOf(pushedFilters, pushedFilters.length + attributeFilters.length);
+    System.arraycopy(attributeFilters, 0, filters, pushedFilters.length, attributeFilters.length);
+    return filters;
   }
 
   @Override
@@ -165,50 +225,43 @@ public class TileDBDataSourceReader
 
   @Override
   public List<InputPartition<ColumnarBatch>> planBatchInputPartitions() {
+    if (plannedPartitions != null) {
+      return new ArrayList<>(plannedPartitions);
+    }
     metricsUpdater.startTimer(dataSourcePlanBatchInputPartitionsTimerName);
     ArrayList<InputPartition<ColumnarBatch>> readerPartitions = new ArrayList<>();
 
     try {
-      Context ctx = new Context(tiledbOptions.getTileDBConfigMap());
-      // Fetch the array and load its metadata
-      Array array = new Array(ctx, uri.toString());
-      HashMap<String, Pair> nonEmptyDomain = array.nonEmptyDomain();
-      Domain domain = array.getSchema().getDomain();
-
-      List<List<Range>> ranges = new ArrayList<>();
-      // Populate initial range list
-      for (int i = 0; i < domain.getNDim(); i++) {
-        ranges.add(new ArrayList<>());
-      }
+      // Fetch the (cached) array metadata, every partition reads the snapshot it was taken at
+      TileDBArrayMetadata metadata = TileDBArrayMetadataCache.getArrayMetadata(uri, tiledbOptions);
+      long openTimestamp = metadata.getTimestamp();
 
-      // Build range from all pushed filters
-      for (Filter filter : pushedFilters) {
-        List<List<Range>> dimRanges = buildRangeFromFilter(filter, nonEmptyDomain).getFirst();
-
-        for (int i = 0; i < dimRanges.size(); i++) {
-          ranges.get(i).addAll(dimRanges.get(i));
-        }
-      }
-
-      // Add nonEmptyDomain to any dimension that does not have a range from pushdown
-      // For any existing ranges we try to merge into super ranges
-      for (int i = 0; i < domain.getNDim(); i++) {
-        List<Range> range = ranges.get(i);
-        if (range.isEmpty()) {
-          String dimensionName = this.tileDBReadSchema.getDimensionName(i).get();
-          range.add(new Range(nonEmptyDomain.get(dimensionName)));
-        } else {
-          List<Range> mergedRanges = checkAndMergeRanges(range);
-          ranges.set(i, mergedRanges);
-        }
-      }
+      List<List<Range>> ranges = buildDimensionRanges(metadata);
 
       List<SubArrayRanges> subarrays = new ArrayList<>();
 
       generateAllSubarrays(ranges, subarrays, 0, new ArrayList<>());
 
       int availablePartitions = tiledbOptions.getPartitionCount();
-      if (availablePartitions > 1) {
+      Optional<Long> limit = tiledbOptions.getReadLimit();
+      if (limit.isPresent() && attributeFilters.length == 0) {
+        // a single partition reads until it has enough rows when the limit is small, attribute
+        // filters make the number of matching cells unknown
+        availablePartitions =
+            TileDBPartitionPlanner.partitionsForLimit(
+                subarrays, metadata, limit.get(), availablePartitions);
+      }
+      String planner = tiledbOptions.getPartitionPlanner();
+      if (planner.equals("fragments") && TileDBPartitionPlanner.canPlan(subarrays)) {
+        // split where the fragments hold cells, drop subarrays without any
+        subarrays =
+            TileDBPartitionPlanner.planByFragments(subarrays, metadata, availablePartitions);
+      } else if (planner.equals("sampling") && TileDBPartitionPlanner.canPlan(subarrays)) {
+        // split by the data density sampled over a grid, drop subarrays without any cells
+        subarrays =
+            TileDBPartitionPlanner.planBySampling(
+                subarrays, metadata, uri, tiledbOptions, availablePartitions);
+      } else if (availablePartitions > 1) {
         // Base case where we don't have any (or just single) pushdown per dimension
         if (subarrays.size() == 1 && subarrays.get(0).splittable()) {
           subarrays = subarrays.get(0).splitToPartitions(availablePartitions);
@@ -264,22 +317,150 @@ public class TileDBDataSourceReader
         }
       }
 
-      for (SubArrayRanges subarray : subarrays) {
-        // In the future we will be smarter about combining ranges to have partitions work on more
-        // than one range
-        // I.E. don't over partition like we probably are doing now
+      // Combine many small subarrays into multi-range partitions
+      List<List<SubArrayRanges>> partitionSubarrays =
+          TileDBPartitionPlanner.pack(subarrays, metadata, availablePartitions);
+      for (List<SubArrayRanges> partition : partitionSubarrays) {
         List<List<Range>> subarrayRanges = new ArrayList<>();
-        subarrayRanges.add(subarray.getRanges());
+        for (SubArrayRanges subarray : partition) {
+          subarrayRanges.add(subarray.getRanges());
+        }
         readerPartitions.add(
-            new TileDBDataReaderPartition(uri, tileDBReadSchema, tiledbOptions, subarrayRanges));
+            new TileDBDataReaderPartition(
+                uri,
+                tileDBReadSchema,
+                tiledbOptions,
+                subarrayRanges,
+                openTimestamp,
+                attributeFilters,
+                aggregate));
       }
+      plannedPartitioning =
+          new TileDBDimensionPartitioning(partitionSubarrays, metadata.getDimensionNames());
     } catch (TileDBError tileDBError) {
       log.log(ERROR, tileDBError.getMessage());
       metricsUpdater.finish(dataSourcePlanBatchInputPartitionsTimerName);
       return readerPartitions;
     }
+    plannedPartitions = readerPartitions;
     metricsUpdater.finish(dataSourcePlanBatchInputPartitionsTimerName);
-    return readerPartitions;
+    return new ArrayList<>(readerPartitions);
+  }
+
+  @Override
+  public Partitioning outputPartitioning() {
+    if (plannedPartitioning == null) {
+      planBatchInputPartitions();
+    }
+    if (plannedPartitioning == null) {
+      // planning failed, no partition
+      return new TileDBDimensionPartitioning(new ArrayList<>(), new ArrayList<>());
+    }
+    log.debug(
+        "Partitions of "
+            + uri
+            + " are disjoint on "
+            + plannedPartitioning.getPartitionDimensions());
+    return plannedPartitioning;
+  }
+
+  private void resetPlannedPartitions() {
+    plannedPartitions = null;
+    plannedPartitioning = null;
+  }
+
+  /**
+   * Build the ranges of every dimension from the pushed filters, dimensions without a pushed range
+   * span the non-empty domain
+   *
+   * @param metadata array metadata
+   * @return merged ranges per dimension
+   * @throws TileDBError A TileDB exception
+   */
+  private List<List<Range>> buildDimensionRanges(TileDBArrayMetadata metadata) throws TileDBError {
+    HashMap<String, Pair> nonEmptyDomain = metadata.getNonEmptyDomain();
+    int ndim = metadata.getDimensionNames().size();
+
+    List<List<Range>> ranges = new ArrayList<>();
+    // Populate initial range list
+    for (int i = 0; i < ndim; i++) {
+      ranges.add(new ArrayList<>());
+    }
+
+    // Build range from all pushed filters
+    for (Filter filter : pushedFilters) {
+      List<List<Range>> dimRanges = buildRangeFromFilter(filter, nonEmptyDomain).getFirst();
+
+      for (int i = 0; i < dimRanges.size(); i++) {
+        ranges.get(i).addAll(dimRanges.get(i));
+      }
+    }
+
+    // Add nonEmptyDomain to any dimension that does not have a range from pushdown
+    // For any existing ranges we try to merge into super ranges
+    for (int i = 0; i < ndim; i++) {
+      List<Range> range = ranges.get(i);
+      if (range.isEmpty()) {
+        String dimensionName = this.tileDBReadSchema.getDimensionName(i).get();
+        range.add(new Range(nonEmptyDomain.get(dimensionName)));
+      } else {
+        List<Range> mergedRanges = checkAndMergeRanges(range);
+        ranges.set(i, mergedRanges);
+      }
+    }
+    return ranges;
+  }
+
+  @Override
+  public Statistics estimateStatistics() {
+    metricsUpdater.startTimer(dataSourceEstimateStatisticsTimerName);
+    OptionalLong sizeInBytes = OptionalLong.empty();
+    OptionalLong numRows = OptionalLong.empty();
+    try {
+      TileDBArrayMetadata metadata = TileDBArrayMetadataCache.getArrayMetadata(uri, tiledbOptions);
+      List<List<Range>> ranges = buildDimensionRanges(metadata);
+
+      // fragments may overlap, so the sum of their cells is an upper bound of the array cells
+      double cells = 0;
+      double bytes = 0;
+      for (TileDBArrayMetadata.Fragment fragment : metadata.getFragments()) {
+        double selectivity = fragment.estimateSelectivity(ranges);
+        cells += fragment.getCellNum() * selectivity;
+        bytes += fragment.getSize() * selectivity;
+      }
+
+      // only the projected columns are read
+      double projectedWidth = 0;
+      for (StructField field : tileDBReadSchema.getSparkSchema().fields()) {
+        projectedWidth += field.dataType().defaultSize();
+      }
+      double fullWidth = 0;
+      for (StructField field : tileDBReadSchema.getTileDBSparkSchema().fields()) {
+        fullWidth += field.dataType().defaultSize();
+      }
+      bytes *= Math.max(projectedWidth, 1) / Math.max(fullWidth, 1);
+      // fragments are compressed, do not report less than the decoded size of the rows
+      bytes = Math.max(bytes, cells * projectedWidth);
+
+      numRows = OptionalLong.of((long) Math.ceil(cells));
+      sizeInBytes = OptionalLong.of((long) Math.ceil(bytes));
+    } catch (TileDBError err) {
+      log.warn("Cannot estimate statistics for " + uri + ": " + err.getMessage());
+    }
+    metricsUpdater.finish(dataSourceEstimateStatisticsTimerName);
+    OptionalLong estimatedSize = sizeInBytes;
+    OptionalLong estimatedRows = numRows;
+    return new Statistics() {
+      @Override
+      public OptionalLong sizeInBytes() {
+        return estimatedSize;
+      }
+
+      @Override
+      public OptionalLong numRows() {
+        return estimatedRows;
+      }
+    };
   }
 
   /**
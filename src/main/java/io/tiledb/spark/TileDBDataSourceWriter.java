@@ -38,10 +38,14 @@ public class TileDBDataSourceWriter implements DataSourceWriter {
   }
 
   @Override
-  public void commit(WriterCommitMessage[] messages) {}
+  public void commit(WriterCommitMessage[] messages) {
+    // the next reads plan on the new fragments
+    TileDBArrayMetadataCache.invalidate(uri);
+  }
 
   @Override
   public void abort(WriterCommitMessage[] messages) {
+    TileDBArrayMetadataCache.invalidate(uri);
     if (messages.length > 0) {
       try (Context ctx = new Context(options.getTileDBConfigMap())) {
         TileDBObject.remove(ctx, uri.toString());
@@ -33,6 +33,8 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
   private StructType sparkSchema;
 
   private Context ctx;
+  // lease on the executor wide cached context
+  private TileDBResourceCache.Lease<Context> ctxLease;
   private Array array;
   private Query query;
 
@@ -53,16 +55,41 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
   private long writeBufferSize;
   private int nRecordsBuffered;
 
+  // Lower bound in bytes of a write buffer shrunk under memory pressure
+  private static final long MIN_WRITE_BUFFER_SIZE = 1024 * 1024;
+
+  // Accounts the write buffers with the task memory manager
+  private final TileDBMemoryConsumer memoryConsumer;
+
+  // set when another consumer of the task needs memory, the buffers are flushed on the next write
+  private volatile boolean flushRequested;
+
+  // false once the write buffers were released under memory pressure, until the next write
+  private boolean buffersAllocated;
+
+  // true while a record is buffered, the buffers cannot be released then
+  private volatile boolean writing;
+
+  // executor wide pool of the native buffers of fixed size fields
+  private final TileDBNativeArrayPool pool;
+
+  // native buffers set on the query by the last flush, pooled or allocated for the flush only
+  private final List<NativeArray> pooledArrays = new ArrayList<>();
+  private final List<NativeArray> flushArrays = new ArrayList<>();
+
   public TileDBDataWriter(URI uri, StructType schema, TileDBDataSourceOptions options) {
     this.uri = uri;
     this.sparkSchema = schema;
     // set write options
     writeBufferSize = options.getWriteBufferSize();
+    pool = TileDBNativeArrayPool.getInstance();
     this.metricsUpdater = new TileDBWriteMetricsUpdater(TaskContext.get());
     this.metricsUpdater.startTimer(queryWriteTimerName);
     this.metricsUpdater.startTimer(queryWriteTaskTimerName);
 
     task = TaskContext.get();
+    memoryConsumer =
+        new TileDBMemoryConsumer(task.taskMemoryManager(), this::releaseBuffersOnSpill);
     task.addTaskCompletionListener(
         context -> {
           double duration = metricsUpdater.finish(queryWriteTaskTimerName) / 1000000000d;
@@ -83,7 +110,8 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
     nativeArrayBufferElements = new int[nFields];
 
     try {
-      ctx = new Context(options.getTileDBConfigMap());
+      ctxLease = TileDBResourceCache.getInstance().acquireContext(options.getTileDBConfigMap());
+      ctx = ctxLease.get();
       array = new Array(ctx, uri.toString(), QueryType.TILEDB_WRITE);
       try (ArraySchema arraySchema = array.getSchema()) {
         assert arraySchema.isSparse();
@@ -143,6 +171,7 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
         attributeNames.add(attributeName);
 
       bufferSizes = new int[attributeNames.size()];
+      long bufferSize = reserveBufferMemory(arraySchema, attributeNames);
 
       for (String attributeName : attributeNames) {
         boolean isVar;
@@ -159,17 +188,16 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
         }
 
         if (isVar) {
-          int numOffsets =
-              Math.toIntExact(writeBufferSize / Datatype.TILEDB_UINT64.getNativeSize());
+          int numOffsets = Math.toIntExact(bufferSize / Datatype.TILEDB_UINT64.getNativeSize());
           javaArrayOffsetBuffers[bufferIdx] = new long[numOffsets];
           nativeArrayOffsetElements[bufferIdx] = 0;
 
-          int numElements = Math.toIntExact(writeBufferSize / datatype.getNativeSize());
+          int numElements = Math.toIntExact(bufferSize / datatype.getNativeSize());
           javaArrayBuffers[bufferIdx] = new JavaArray(datatype, numElements);
           bufferSizes[bufferIdx] = numElements;
           nativeArrayBufferElements[bufferIdx] = 0;
         } else {
-          int numElements = Math.toIntExact(writeBufferSize / datatype.getNativeSize());
+          int numElements = Math.toIntExact(bufferSize / datatype.getNativeSize());
           javaArrayBuffers[bufferIdx] = new JavaArray(datatype, numElements);
           bufferSizes[bufferIdx] = numElements;
           nativeArrayBufferElements[bufferIdx] = 0;
@@ -179,10 +207,83 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
       }
     }
     nRecordsBuffered = 0;
+    buffersAllocated = true;
     this.metricsUpdater.finish(queryResetWriteQueryAndBuffersTimerName);
     return;
   }
 
+  /**
+   * Flush the buffered records and drop the write buffers when another consumer of the task needs
+   * memory. The buffers are reserved and allocated again by the next write.
+   *
+   * @return true if the buffers were released, false while a record is being written
+   * @throws IOException if the buffered records could not be flushed
+   */
+  private boolean releaseBuffersOnSpill() throws IOException {
+    if (writing) {
+      // flushed at the start of the next write instead
+      flushRequested = true;
+      return false;
+    }
+    if (!buffersAllocated) {
+      return false;
+    }
+    try {
+      if (nRecordsBuffered > 0) {
+        flushBuffers();
+        nRecordsBuffered = 0;
+      }
+    } catch (TileDBError err) {
+      throw new IOException(err.getMessage());
+    }
+    for (int i = 0; i < javaArrayBuffers.length; i++) {
+      javaArrayBuffers[i] = null;
+      javaArrayOffsetBuffers[i] = null;
+    }
+    buffersAllocated = false;
+    return true;
+  }
+
+  /**
+   * Reserve the memory of the write buffers with the task memory manager. Under memory pressure the
+   * buffers are shrunk, so the records are flushed to TileDB earlier.
+   *
+   * @param arraySchema schema of the written array
+   * @param names dimension and attribute names
+   * @return size in bytes of each write buffer
+   * @throws TileDBError A TileDB exception
+   */
+  private long reserveBufferMemory(ArraySchema arraySchema, List<String> names) throws TileDBError {
+    int numBuffers = 0;
+    for (String name : names) {
+      boolean isVar;
+      if (arraySchema.hasAttribute(name)) {
+        isVar = arraySchema.getAttribute(name).isVar();
+      } else {
+        isVar = arraySchema.getDomain().getDimension(name).isVar();
+      }
+      numBuffers += isVar ? 2 : 1;
+    }
+
+    memoryConsumer.releaseAll();
+    long requested = writeBufferSize * numBuffers;
+    long granted = memoryConsumer.acquireMemory(requested);
+    if (granted >= requested) {
+      return writeBufferSize;
+    }
+    long bufferSize =
+        Math.max(granted / numBuffers, Math.min(writeBufferSize, MIN_WRITE_BUFFER_SIZE));
+    log.info(
+        "Task memory manager granted "
+            + granted
+            + " of "
+            + requested
+            + " bytes, shrinking write buffers to "
+            + bufferSize
+            + " bytes");
+    return bufferSize;
+  }
+
   private boolean bufferDimensionValue(int dimIdx, InternalRow record, int ordinal)
       throws TileDBError {
     // special case zipped coordinate for now
@@ -372,6 +473,7 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
           break;
         }
         // Handle spark date fields
+      case TILEDB_DATETIME_WEEK:
       case TILEDB_DATETIME_DAY:
         {
           if (isArray) {
@@ -382,19 +484,24 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
               return true;
             }
             for (int i = 0; i < array.length; i++) {
-              buffer.set(bufferOffset + i, ((Integer) array[i]).longValue());
+              buffer.set(bufferOffset + i, TileDBDatetime.fromSpark(array[i], dtype));
             }
             offsets[bufferElement] = (long) bufferOffset;
             nativeArrayOffsetElements[bufferIdx] += 1;
             nativeArrayBufferElements[bufferIdx] += array.length;
           } else {
-            buffer.set(bufferElement, ((Integer) record.getInt(ordinal)).longValue());
+            buffer.set(bufferElement, TileDBDatetime.fromSpark(record.getInt(ordinal), dtype));
             nativeArrayBufferElements[bufferIdx] += 1;
           }
           break;
         }
-        // Handle spark timestamp fields
+        // Handle spark timestamp fields, stored in microseconds
+      case TILEDB_DATETIME_HR:
+      case TILEDB_DATETIME_MIN:
+      case TILEDB_DATETIME_SEC:
       case TILEDB_DATETIME_MS:
+      case TILEDB_DATETIME_US:
+      case TILEDB_DATETIME_NS:
         {
           if (isArray) {
             long[] array = record.getArray(ordinal).toLongArray();
@@ -404,13 +511,13 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
               return true;
             }
             for (int i = 0; i < array.length; i++) {
-              buffer.set(bufferOffset + i, array[i]);
+              buffer.set(bufferOffset + i, TileDBDatetime.fromSpark(array[i], dtype));
             }
             offsets[bufferElement] = (long) bufferOffset;
             nativeArrayOffsetElements[bufferIdx] += 1;
             nativeArrayBufferElements[bufferIdx] += array.length;
           } else {
-            buffer.set(bufferElement, record.getLong(ordinal));
+            buffer.set(bufferElement, TileDBDatetime.fromSpark(record.getLong(ordinal), dtype));
             nativeArrayBufferElements[bufferIdx] += 1;
           }
           break;
@@ -426,7 +533,20 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
   @Override
   public void write(InternalRow record) throws IOException {
     this.metricsUpdater.startTimer(queryWriteRowTimerName);
+    writing = true;
     try {
+      if (flushRequested) {
+        // release the buffered records before other consumers of the task run out of memory
+        flushRequested = false;
+        if (nRecordsBuffered > 0) {
+          flushBuffers();
+          resetWriteQueryAndBuffers();
+        }
+      }
+      if (!buffersAllocated) {
+        // released under memory pressure since the last write
+        resetWriteQueryAndBuffers();
+      }
       for (int flushAttempts = 0; flushAttempts < 2; flushAttempts++) {
         boolean retryAfterFlush = false;
         for (int ordinal = 0; ordinal < record.numFields(); ordinal++) {
@@ -457,6 +577,8 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
     } catch (TileDBError err) {
       this.metricsUpdater.finish(queryWriteRowTimerName);
       throw new IOException(err.getMessage());
+    } finally {
+      writing = false;
     }
     this.metricsUpdater.finish(queryWriteRowTimerName);
   }
@@ -485,22 +607,40 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
 
       boolean isVar = (bufferValNum[i] == Constants.TILEDB_VAR_NUM);
       if (isVar) {
-        query.setBuffer(
-            name,
+        // the query reads the full size of var-length buffers, they are allocated to fit
+        NativeArray offsets =
             new NativeArray(
                 ctx,
                 javaArrayOffsetBuffers[i],
                 Datatype.TILEDB_UINT64,
-                nativeArrayOffsetElements[i]),
-            new NativeArray(ctx, bufferData, bufferDataType, nativeArrayBufferElements[i]));
+                nativeArrayOffsetElements[i]);
+        flushArrays.add(offsets);
+        NativeArray data =
+            new NativeArray(ctx, bufferData, bufferDataType, nativeArrayBufferElements[i]);
+        flushArrays.add(data);
+        query.setBuffer(name, offsets, data);
       } else {
-        query.setBuffer(
-            name,
-            new NativeArray(ctx, bufferData, bufferDataType, nRecordsBuffered),
-            nativeArrayBufferElements[i]);
+        Object javaData = javaArrayBuffers[i].get();
+        NativeArray data;
+        if (util.javaArrayElementSize(javaData) == bufferDataType.getNativeSize()) {
+          // copy into a pooled buffer, the query only reads the buffered elements
+          data = pool.acquire(bufferDataType, nativeArrayBufferElements[i]);
+          pooledArrays.add(data);
+          util.copyToNativeArray(javaData, nativeArrayBufferElements[i], data);
+        } else {
+          // unsigned values are widened in Java and converted element wise
+          data = new NativeArray(ctx, bufferData, bufferDataType, nRecordsBuffered);
+          flushArrays.add(data);
+        }
+        query.setBuffer(name, data, nativeArrayBufferElements[i]);
       }
     }
-    QueryStatus status = query.submit();
+    QueryStatus status;
+    try {
+      status = query.submit();
+    } finally {
+      releaseFlushArrays();
+    }
     if (status != QueryStatus.TILEDB_COMPLETED) {
       this.metricsUpdater.finish(queryWriteFlushBuffersTimerName);
       throw new TileDBError("Query write error: " + status);
@@ -510,11 +650,25 @@ public class TileDBDataWriter implements DataWriter<InternalRow> {
     this.metricsUpdater.finish(queryWriteFlushBuffersTimerName);
   }
 
+  /** Release the native buffers of the last flush, the query no longer reads them */
+  private void releaseFlushArrays() {
+    for (NativeArray array : pooledArrays) {
+      pool.release(array);
+    }
+    pooledArrays.clear();
+    for (NativeArray array : flushArrays) {
+      array.close();
+    }
+    flushArrays.clear();
+  }
+
   private void closeTileDBResources() {
     this.metricsUpdater.startTimer(queryWriteCloseTileDBResourcesTimerName);
+    releaseFlushArrays();
     query.close();
     array.close();
-    ctx.close();
+    ctxLease.close();
+    memoryConsumer.releaseAll();
     this.metricsUpdater.finish(queryWriteCloseTileDBResourcesTimerName);
   }
 
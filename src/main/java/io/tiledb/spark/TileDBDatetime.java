@@ -0,0 +1,170 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import org.apache.spark.sql.execution.vectorized.WritableColumnVector;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.Platform;
+
+/**
+ * Conversion of TileDB datetime values to the Spark date and timestamp representations.
+ *
+ * <p>TileDB stores datetimes as int64 counts of a unit since the epoch. Day and week units map to
+ * Spark dates, stored as int32 days, and hour to nanosecond units map to Spark timestamps, stored
+ * as int64 microseconds. Values are converted straight from the native query buffers into the
+ * column vectors.
+ */
+public final class TileDBDatetime {
+
+  private TileDBDatetime() {}
+
+  /**
+   * @param type TileDB datatype
+   * @return true if the datetime unit has a Spark date or timestamp mapping
+   */
+  public static boolean isSupported(Datatype type) {
+    return isDate(type) || isTimestamp(type);
+  }
+
+  /**
+   * @param type TileDB datatype
+   * @return true if values are read as Spark dates
+   */
+  public static boolean isDate(Datatype type) {
+    return type == Datatype.TILEDB_DATETIME_DAY || type == Datatype.TILEDB_DATETIME_WEEK;
+  }
+
+  /**
+   * @param type TileDB datatype
+   * @return true if values are read as Spark timestamps
+   */
+  public static boolean isTimestamp(Datatype type) {
+    switch (type) {
+      case TILEDB_DATETIME_HR:
+      case TILEDB_DATETIME_MIN:
+      case TILEDB_DATETIME_SEC:
+      case TILEDB_DATETIME_MS:
+      case TILEDB_DATETIME_US:
+      case TILEDB_DATETIME_NS:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @param type TileDB datetime datatype
+   * @return Spark type of the values
+   */
+  public static DataType sparkType(Datatype type) {
+    return isDate(type) ? DataTypes.DateType : DataTypes.TimestampType;
+  }
+
+  /**
+   * Convert a TileDB datetime value to its Spark representation
+   *
+   * @param value TileDB value
+   * @param type TileDB datetime datatype
+   * @return days since the epoch for dates, microseconds since the epoch for timestamps
+   */
+  public static long toSpark(long value, Datatype type) {
+    switch (type) {
+      case TILEDB_DATETIME_WEEK:
+        return value * 7;
+      case TILEDB_DATETIME_HR:
+        return value * 3600_000_000L;
+      case TILEDB_DATETIME_MIN:
+        return value * 60_000_000L;
+      case TILEDB_DATETIME_SEC:
+        return value * 1000_000L;
+      case TILEDB_DATETIME_MS:
+        return value * 1000L;
+      case TILEDB_DATETIME_NS:
+        return Math.floorDiv(value, 1000L);
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Convert a Spark date or timestamp to a TileDB datetime value, rounding down to the unit
+   *
+   * @param value days since the epoch for dates, microseconds since the epoch for timestamps
+   * @param type TileDB datetime datatype
+   * @return TileDB value
+   */
+  public static long fromSpark(long value, Datatype type) {
+    switch (type) {
+      case TILEDB_DATETIME_WEEK:
+        return Math.floorDiv(value, 7L);
+      case TILEDB_DATETIME_HR:
+        return Math.floorDiv(value, 3600_000_000L);
+      case TILEDB_DATETIME_MIN:
+        return Math.floorDiv(value, 60_000_000L);
+      case TILEDB_DATETIME_SEC:
+        return Math.floorDiv(value, 1000_000L);
+      case TILEDB_DATETIME_MS:
+        return Math.floorDiv(value, 1000L);
+      case TILEDB_DATETIME_NS:
+        return value * 1000L;
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Convert native int64 datetime values into a Spark date (int32) or timestamp (int64) vector
+   *
+   * @param type TileDB datetime datatype
+   * @param src native address of the first value
+   * @param vector destination column vector
+   * @param rowId first row written in the vector
+   * @param count number of values
+   */
+  public static void copyToVector(
+      Datatype type, long src, WritableColumnVector vector, int rowId, int count) {
+    if (isDate(type)) {
+      int factor = (int) toSpark(1, type);
+      for (int i = 0; i < count; i++) {
+        vector.putInt(rowId + i, (int) Platform.getLong(null, src + 8L * i) * factor);
+      }
+    } else if (type == Datatype.TILEDB_DATETIME_NS) {
+      for (int i = 0; i < count; i++) {
+        vector.putLong(rowId + i, Math.floorDiv(Platform.getLong(null, src + 8L * i), 1000L));
+      }
+    } else {
+      long factor = toSpark(1, type);
+      for (int i = 0; i < count; i++) {
+        vector.putLong(rowId + i, Platform.getLong(null, src + 8L * i) * factor);
+      }
+    }
+  }
+
+  /**
+   * Convert native int64 datetime values into Spark date (int32) or timestamp (int64) values at a
+   * native address
+   *
+   * @param type TileDB datetime datatype
+   * @param src native address of the first value
+   * @param dst native address of the first converted value
+   * @param count number of values
+   */
+  public static void copyToAddress(Datatype type, long src, long dst, int count) {
+    if (isDate(type)) {
+      int factor = (int) toSpark(1, type);
+      for (int i = 0; i < count; i++) {
+        Platform.putInt(null, dst + 4L * i, (int) Platform.getLong(null, src + 8L * i) * factor);
+      }
+    } else if (type == Datatype.TILEDB_DATETIME_NS) {
+      for (int i = 0; i < count; i++) {
+        Platform.putLong(
+            null, dst + 8L * i, Math.floorDiv(Platform.getLong(null, src + 8L * i), 1000L));
+      }
+    } else {
+      long factor = toSpark(1, type);
+      for (int i = 0; i < count; i++) {
+        Platform.putLong(null, dst + 8L * i, Platform.getLong(null, src + 8L * i) * factor);
+      }
+    }
+  }
+}
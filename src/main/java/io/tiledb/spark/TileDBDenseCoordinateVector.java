@@ -0,0 +1,139 @@
+package io.tiledb.spark;
+
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only Spark column vector computing the coordinates of one dimension of a dense read.
+ *
+ * <p>A dense read of a single subarray in row-major or col-major layout returns every cell of the
+ * subarray in order, so the coordinate of the i-th cell is determined by the subarray bounds. The
+ * vector computes the coordinates on access instead of reading them from TileDB.
+ */
+public class TileDBDenseCoordinateVector extends ColumnVector {
+
+  // lower bound of the subarray on this dimension
+  private final long start;
+
+  // number of cells of the subarray between two consecutive coordinates of this dimension
+  private final long stride;
+
+  // number of coordinates of the subarray on this dimension
+  private final long extent;
+
+  // index in the subarray of the first cell of the current batch
+  private long cellOffset;
+
+  /**
+   * @param sparkType Spark type of the dimension column
+   * @param start lower bound of the subarray on this dimension
+   * @param stride number of cells between two consecutive coordinates in the read layout
+   * @param extent number of coordinates of the subarray on this dimension
+   */
+  public TileDBDenseCoordinateVector(DataType sparkType, long start, long stride, long extent) {
+    super(sparkType);
+    this.start = start;
+    this.stride = stride;
+    this.extent = extent;
+  }
+
+  /**
+   * Set the position of the current batch in the subarray
+   *
+   * @param cellOffset number of cells of the subarray returned before this batch
+   */
+  public void setCellOffset(long cellOffset) {
+    this.cellOffset = cellOffset;
+  }
+
+  private long coordinate(int rowId) {
+    return start + ((cellOffset + rowId) / stride) % extent;
+  }
+
+  @Override
+  public void close() {}
+
+  @Override
+  public boolean hasNull() {
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return false;
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    return (byte) coordinate(rowId);
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    return (short) coordinate(rowId);
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    return (int) coordinate(rowId);
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    return coordinate(rowId);
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnVector getChild(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+}
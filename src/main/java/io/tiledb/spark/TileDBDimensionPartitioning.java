@@ -0,0 +1,124 @@
+package io.tiledb.spark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.spark.sql.sources.v2.reader.partitioning.ClusteredDistribution;
+import org.apache.spark.sql.sources.v2.reader.partitioning.Distribution;
+import org.apache.spark.sql.sources.v2.reader.partitioning.Partitioning;
+
+/**
+ * Partitioning of a TileDB scan over subarrays.
+ *
+ * <p>A dimension partitions the scan if the ranges of the partitions on that dimension are pairwise
+ * disjoint: all the cells with the same coordinate on the dimension are then read by the same
+ * partition, which satisfies any clustering on a set of columns including the dimension.
+ */
+public class TileDBDimensionPartitioning implements Partitioning {
+
+  private final int numPartitions;
+
+  // dimensions with disjoint ranges across partitions
+  private final Set<String> partitionDimensions = new HashSet<>();
+
+  /**
+   * @param partitions subarrays read by each partition
+   * @param dimensionNames dimension names in domain order
+   */
+  public TileDBDimensionPartitioning(
+      List<List<SubArrayRanges>> partitions, List<String> dimensionNames) {
+    this.numPartitions = partitions.size();
+    for (int i = 0; i < dimensionNames.size(); i++) {
+      List<Range> ranges = new ArrayList<>();
+      List<Integer> owners = new ArrayList<>();
+      for (int p = 0; p < partitions.size(); p++) {
+        for (SubArrayRanges subarray : partitions.get(p)) {
+          ranges.add(subarray.getRanges().get(i));
+          owners.add(p);
+        }
+      }
+      if (isDisjoint(ranges, owners)) {
+        partitionDimensions.add(dimensionNames.get(i));
+      }
+    }
+  }
+
+  /** @return dimensions with disjoint ranges across partitions */
+  public Set<String> getPartitionDimensions() {
+    return partitionDimensions;
+  }
+
+  @Override
+  public int numPartitions() {
+    return numPartitions;
+  }
+
+  @Override
+  public boolean satisfy(Distribution distribution) {
+    if (distribution instanceof ClusteredDistribution) {
+      String[] clusteredColumns = ((ClusteredDistribution) distribution).clusteredColumns;
+      return Arrays.stream(clusteredColumns).anyMatch(partitionDimensions::contains);
+    }
+    return false;
+  }
+
+  /**
+   * Check that the ranges of different partitions do not overlap, ranges of the same partition may
+   *
+   * @param ranges ranges of all the partitions
+   * @param owners partition of each range
+   */
+  private static boolean isDisjoint(List<Range> ranges, List<Integer> owners) {
+    try {
+      List<Integer> order = new ArrayList<>();
+      for (int i = 0; i < ranges.size(); i++) {
+        order.add(i);
+      }
+      order.sort(
+          Comparator.comparing(
+              i -> ranges.get(i).getFirst(), TileDBDimensionPartitioning::compare));
+      // sweep over the ranges, a run of overlapping ranges must belong to a single partition
+      Object runEnd = null;
+      int runOwner = -1;
+      for (int i : order) {
+        Range range = ranges.get(i);
+        // ranges are inclusive
+        if (runEnd != null && compare(runEnd, range.getFirst()) >= 0) {
+          if (owners.get(i) != runOwner) {
+            return false;
+          }
+          if (compare(range.getSecond(), runEnd) > 0) {
+            runEnd = range.getSecond();
+          }
+        } else {
+          runEnd = range.getSecond();
+          runOwner = owners.get(i);
+        }
+      }
+      return true;
+    } catch (IllegalArgumentException err) {
+      return false;
+    }
+  }
+
+  private static int compare(Object a, Object b) {
+    if (isIntegral(a) && isIntegral(b)) {
+      return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+    } else if (a instanceof Number && b instanceof Number) {
+      return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+    } else if (a instanceof String && b instanceof String) {
+      return ((String) a).compareTo((String) b);
+    }
+    throw new IllegalArgumentException("Cannot compare range bounds " + a + " and " + b);
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long;
+  }
+}
@@ -0,0 +1,626 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.ArraySchema;
+import io.tiledb.java.api.Attribute;
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.Dimension;
+import io.tiledb.java.api.Domain;
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.Pair;
+import io.tiledb.java.api.TileDBError;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.spark.sql.sources.And;
+import org.apache.spark.sql.sources.EqualNullSafe;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.sources.GreaterThan;
+import org.apache.spark.sql.sources.GreaterThanOrEqual;
+import org.apache.spark.sql.sources.In;
+import org.apache.spark.sql.sources.IsNotNull;
+import org.apache.spark.sql.sources.IsNull;
+import org.apache.spark.sql.sources.LessThan;
+import org.apache.spark.sql.sources.LessThanOrEqual;
+import org.apache.spark.sql.sources.Not;
+import org.apache.spark.sql.sources.Or;
+import org.apache.spark.sql.sources.StringContains;
+import org.apache.spark.sql.sources.StringEndsWith;
+import org.apache.spark.sql.sources.StringStartsWith;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.Platform;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Evaluates pushed down attribute filters over the result buffers of a read query.
+ *
+ * <p>Filters are compiled once per partition into a predicate tree whose leaves loop over the
+ * native query buffers of a column, reading the values in place. The evaluation of a batch yields a
+ * selection vector of the matching row ids. TileDB attributes are not nullable, so IS NULL never
+ * matches and the filters are evaluated with two-valued logic.
+ */
+public class TileDBFilterEvaluator {
+
+  private final Predicate predicate;
+
+  // columns referenced by the filters keyed by name
+  private final Map<String, Column> columns = new HashMap<>();
+
+  // per row results of the last evaluation and the selected row ids
+  private boolean[] matches = new boolean[0];
+  private int[] selection = new int[0];
+
+  /**
+   * @param filters pushed down filters, a row is selected if it matches all of them
+   * @param fieldNames query field names, the buffers of the referenced columns are looked up by
+   *     their index in this list
+   * @param arraySchema schema of the array
+   * @throws TileDBError A TileDB exception
+   */
+  public TileDBFilterEvaluator(Filter[] filters, List<String> fieldNames, ArraySchema arraySchema)
+      throws TileDBError {
+    for (String name : references(filters)) {
+      columns.put(name, new Column(name, fieldNames.indexOf(name), arraySchema));
+    }
+    Predicate result = null;
+    for (Filter filter : filters) {
+      Predicate next = compile(filter);
+      result = result == null ? next : new AndPredicate(result, next);
+    }
+    this.predicate = result != null ? result : new ConstantPredicate(true);
+  }
+
+  /**
+   * Get the columns a set of filters needs to be evaluated
+   *
+   * @param filters pushed down filters
+   * @return referenced column names
+   */
+  public static Set<String> references(Filter[] filters) {
+    Set<String> names = new LinkedHashSet<>();
+    for (Filter filter : filters) {
+      names.addAll(Arrays.asList(filter.references()));
+    }
+    return names;
+  }
+
+  /**
+   * Check if a filter can be evaluated in the scan
+   *
+   * @param filter Spark filter
+   * @param schema Spark schema of the array
+   * @return true if all predicates of the filter are supported on the types of their columns
+   */
+  public static boolean isSupported(Filter filter, StructType schema) {
+    if (filter instanceof And) {
+      And f = (And) filter;
+      return isSupported(f.left(), schema) && isSupported(f.right(), schema);
+    } else if (filter instanceof Or) {
+      Or f = (Or) filter;
+      return isSupported(f.left(), schema) && isSupported(f.right(), schema);
+    } else if (filter instanceof Not) {
+      return isSupported(((Not) filter).child(), schema);
+    } else if (filter instanceof IsNull) {
+      return isSupportedType(getType(((IsNull) filter).attribute(), schema));
+    } else if (filter instanceof IsNotNull) {
+      return isSupportedType(getType(((IsNotNull) filter).attribute(), schema));
+    } else if (filter instanceof EqualTo) {
+      EqualTo f = (EqualTo) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof EqualNullSafe) {
+      EqualNullSafe f = (EqualNullSafe) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof GreaterThan) {
+      GreaterThan f = (GreaterThan) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof GreaterThanOrEqual) {
+      GreaterThanOrEqual f = (GreaterThanOrEqual) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof LessThan) {
+      LessThan f = (LessThan) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof LessThanOrEqual) {
+      LessThanOrEqual f = (LessThanOrEqual) filter;
+      return isSupportedValue(getType(f.attribute(), schema), f.value());
+    } else if (filter instanceof In) {
+      In f = (In) filter;
+      DataType type = getType(f.attribute(), schema);
+      for (Object value : f.values()) {
+        if (!isSupportedValue(type, value)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (filter instanceof StringStartsWith) {
+      return getType(((StringStartsWith) filter).attribute(), schema) == DataTypes.StringType;
+    } else if (filter instanceof StringEndsWith) {
+      return getType(((StringEndsWith) filter).attribute(), schema) == DataTypes.StringType;
+    } else if (filter instanceof StringContains) {
+      return getType(((StringContains) filter).attribute(), schema) == DataTypes.StringType;
+    }
+    return false;
+  }
+
+  private static DataType getType(String name, StructType schema) {
+    for (StructField field : schema.fields()) {
+      if (field.name().equals(name)) {
+        return field.dataType();
+      }
+    }
+    return null;
+  }
+
+  private static boolean isSupportedType(DataType type) {
+    return type == DataTypes.ByteType
+        || type == DataTypes.ShortType
+        || type == DataTypes.IntegerType
+        || type == DataTypes.LongType
+        || type == DataTypes.FloatType
+        || type == DataTypes.DoubleType
+        || type == DataTypes.StringType;
+  }
+
+  private static boolean isSupportedValue(DataType type, Object value) {
+    if (!isSupportedType(type) || value == null) {
+      return false;
+    }
+    if (type == DataTypes.StringType) {
+      return value instanceof String;
+    }
+    return value instanceof Number;
+  }
+
+  /**
+   * Evaluate the filters on the results of the last query submission
+   *
+   * @param buffers (offsets, values) result buffers indexed by the query field indexes
+   * @param elements number of (offset, value) elements per field returned by the submission
+   * @param numRows number of rows returned by the submission
+   * @return number of selected rows, their row ids are the first entries of {@link #getSelection()}
+   * @throws TileDBError A TileDB exception
+   */
+  public int evaluate(
+      List<Pair<NativeArray, NativeArray>> buffers,
+      Map<String, Pair<Long, Long>> elements,
+      int numRows)
+      throws TileDBError {
+    for (Column column : columns.values()) {
+      column.bind(buffers.get(column.index), elements.get(column.name));
+    }
+    if (matches.length < numRows) {
+      matches = new boolean[numRows];
+      selection = new int[numRows];
+    }
+    predicate.evaluate(numRows, matches);
+    int numSelected = 0;
+    for (int i = 0; i < numRows; i++) {
+      if (matches[i]) {
+        selection[numSelected++] = i;
+      }
+    }
+    return numSelected;
+  }
+
+  /** @return selected row ids of the last evaluation */
+  public int[] getSelection() {
+    return selection;
+  }
+
+  private Predicate compile(Filter filter) throws TileDBError {
+    if (filter instanceof And) {
+      And f = (And) filter;
+      return new AndPredicate(compile(f.left()), compile(f.right()));
+    } else if (filter instanceof Or) {
+      Or f = (Or) filter;
+      return new OrPredicate(compile(f.left()), compile(f.right()));
+    } else if (filter instanceof Not) {
+      return new NotPredicate(compile(((Not) filter).child()));
+    } else if (filter instanceof IsNull) {
+      return new ConstantPredicate(false);
+    } else if (filter instanceof IsNotNull) {
+      return new ConstantPredicate(true);
+    } else if (filter instanceof EqualTo) {
+      EqualTo f = (EqualTo) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.EQ);
+    } else if (filter instanceof EqualNullSafe) {
+      EqualNullSafe f = (EqualNullSafe) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.EQ);
+    } else if (filter instanceof GreaterThan) {
+      GreaterThan f = (GreaterThan) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.GT);
+    } else if (filter instanceof GreaterThanOrEqual) {
+      GreaterThanOrEqual f = (GreaterThanOrEqual) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.GE);
+    } else if (filter instanceof LessThan) {
+      LessThan f = (LessThan) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.LT);
+    } else if (filter instanceof LessThanOrEqual) {
+      LessThanOrEqual f = (LessThanOrEqual) filter;
+      return new ComparePredicate(columns.get(f.attribute()), f.value(), CompareOp.LE);
+    } else if (filter instanceof In) {
+      In f = (In) filter;
+      return new InPredicate(columns.get(f.attribute()), f.values());
+    } else if (filter instanceof StringStartsWith) {
+      StringStartsWith f = (StringStartsWith) filter;
+      return new StringPredicate(columns.get(f.attribute()), f.value(), StringOp.STARTS_WITH);
+    } else if (filter instanceof StringEndsWith) {
+      StringEndsWith f = (StringEndsWith) filter;
+      return new StringPredicate(columns.get(f.attribute()), f.value(), StringOp.ENDS_WITH);
+    } else if (filter instanceof StringContains) {
+      StringContains f = (StringContains) filter;
+      return new StringPredicate(columns.get(f.attribute()), f.value(), StringOp.CONTAINS);
+    }
+    throw new TileDBError("Unsupported pushed down filter " + filter);
+  }
+
+  /** Query result buffers of a filtered column, values are read in place */
+  private static class Column {
+    private final String name;
+    private final int index;
+    private final Datatype type;
+    private final boolean isVar;
+    private final long cellValNum;
+
+    private long address;
+    private long offsetsAddress;
+    private long numOffsets;
+    private long numBytes;
+
+    Column(String name, int index, ArraySchema arraySchema) throws TileDBError {
+      this.name = name;
+      this.index = index;
+      try (Domain domain = arraySchema.getDomain()) {
+        if (domain.hasDimension(name)) {
+          try (Dimension dim = domain.getDimension(name)) {
+            type = dim.getType();
+            isVar = dim.isVar();
+            cellValNum = dim.getCellValNum();
+          }
+        } else {
+          try (Attribute attr = arraySchema.getAttribute(name)) {
+            type = attr.getType();
+            isVar = attr.isVar();
+            cellValNum = attr.getCellValNum();
+          }
+        }
+      }
+    }
+
+    void bind(Pair<NativeArray, NativeArray> buffers, Pair<Long, Long> elements)
+        throws TileDBError {
+      address = util.nativeArrayAddress(buffers.getSecond());
+      numBytes = elements.getSecond() * type.getNativeSize();
+      if (isVar) {
+        offsetsAddress = util.nativeArrayAddress(buffers.getFirst());
+        numOffsets = elements.getFirst();
+      }
+    }
+
+    boolean isString() {
+      return type == Datatype.TILEDB_CHAR
+          || type == Datatype.TILEDB_STRING_ASCII
+          || type == Datatype.TILEDB_STRING_UTF8;
+    }
+
+    boolean isFloatingPoint() {
+      return type == Datatype.TILEDB_FLOAT32 || type == Datatype.TILEDB_FLOAT64;
+    }
+
+    long getLong(int rowId) {
+      switch (type) {
+        case TILEDB_INT8:
+          return Platform.getByte(null, address + rowId);
+        case TILEDB_UINT8:
+          return Platform.getByte(null, address + rowId) & 0xFF;
+        case TILEDB_INT16:
+          return Platform.getShort(null, address + 2L * rowId);
+        case TILEDB_UINT16:
+          return Platform.getShort(null, address + 2L * rowId) & 0xFFFF;
+        case TILEDB_INT32:
+          return Platform.getInt(null, address + 4L * rowId);
+        case TILEDB_UINT32:
+          return Platform.getInt(null, address + 4L * rowId) & 0xFFFFFFFFL;
+        default:
+          return Platform.getLong(null, address + 8L * rowId);
+      }
+    }
+
+    double getDouble(int rowId) {
+      switch (type) {
+        case TILEDB_FLOAT32:
+          return Platform.getFloat(null, address + 4L * rowId);
+        case TILEDB_FLOAT64:
+          return Platform.getDouble(null, address + 8L * rowId);
+        default:
+          return getLong(rowId);
+      }
+    }
+
+    UTF8String getUTF8String(int rowId) {
+      if (!isVar) {
+        return UTF8String.fromAddress(null, address + cellValNum * rowId, (int) cellValNum);
+      }
+      long start = Platform.getLong(null, offsetsAddress + 8L * rowId);
+      long end =
+          rowId + 1 < numOffsets
+              ? Platform.getLong(null, offsetsAddress + 8L * (rowId + 1))
+              : numBytes;
+      return UTF8String.fromAddress(null, address + start, (int) (end - start));
+    }
+  }
+
+  private enum CompareOp {
+    EQ,
+    LT,
+    LE,
+    GT,
+    GE
+  }
+
+  private enum StringOp {
+    STARTS_WITH,
+    ENDS_WITH,
+    CONTAINS
+  }
+
+  private abstract static class Predicate {
+    /**
+     * Evaluate the predicate on the first numRows rows
+     *
+     * @param numRows number of rows
+     * @param result per row result
+     */
+    abstract void evaluate(int numRows, boolean[] result);
+  }
+
+  private static class ConstantPredicate extends Predicate {
+    private final boolean value;
+
+    ConstantPredicate(boolean value) {
+      this.value = value;
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      Arrays.fill(result, 0, numRows, value);
+    }
+  }
+
+  private static class AndPredicate extends Predicate {
+    private final Predicate left;
+    private final Predicate right;
+    private boolean[] scratch = new boolean[0];
+
+    AndPredicate(Predicate left, Predicate right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      if (scratch.length < numRows) {
+        scratch = new boolean[numRows];
+      }
+      left.evaluate(numRows, result);
+      right.evaluate(numRows, scratch);
+      for (int i = 0; i < numRows; i++) {
+        result[i] &= scratch[i];
+      }
+    }
+  }
+
+  private static class OrPredicate extends Predicate {
+    private final Predicate left;
+    private final Predicate right;
+    private boolean[] scratch = new boolean[0];
+
+    OrPredicate(Predicate left, Predicate right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      if (scratch.length < numRows) {
+        scratch = new boolean[numRows];
+      }
+      left.evaluate(numRows, result);
+      right.evaluate(numRows, scratch);
+      for (int i = 0; i < numRows; i++) {
+        result[i] |= scratch[i];
+      }
+    }
+  }
+
+  private static class NotPredicate extends Predicate {
+    private final Predicate child;
+
+    NotPredicate(Predicate child) {
+      this.child = child;
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      child.evaluate(numRows, result);
+      for (int i = 0; i < numRows; i++) {
+        result[i] = !result[i];
+      }
+    }
+  }
+
+  private static class ComparePredicate extends Predicate {
+    private final Column column;
+    private final CompareOp op;
+    private final boolean compareLongs;
+    private final long longValue;
+    private final double doubleValue;
+    private final UTF8String stringValue;
+
+    ComparePredicate(Column column, Object value, CompareOp op) {
+      this.column = column;
+      this.op = op;
+      if (column.isString()) {
+        this.stringValue = UTF8String.fromString(value.toString());
+        this.compareLongs = false;
+        this.longValue = 0;
+        this.doubleValue = 0;
+      } else {
+        Number number = (Number) value;
+        this.stringValue = null;
+        // integer columns are compared exactly unless the literal has a fractional type
+        this.compareLongs = !column.isFloatingPoint() && isIntegral(number);
+        this.longValue = number.longValue();
+        this.doubleValue = number.doubleValue();
+      }
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      if (stringValue != null) {
+        for (int i = 0; i < numRows; i++) {
+          result[i] = test(column.getUTF8String(i).compareTo(stringValue));
+        }
+      } else if (compareLongs) {
+        for (int i = 0; i < numRows; i++) {
+          result[i] = test(Long.compare(column.getLong(i), longValue));
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          result[i] = test(compareDoubles(column.getDouble(i), doubleValue));
+        }
+      }
+    }
+
+    private boolean test(int cmp) {
+      switch (op) {
+        case EQ:
+          return cmp == 0;
+        case LT:
+          return cmp < 0;
+        case LE:
+          return cmp <= 0;
+        case GT:
+          return cmp > 0;
+        default:
+          return cmp >= 0;
+      }
+    }
+  }
+
+  private static class InPredicate extends Predicate {
+    private final Column column;
+    private final Set<UTF8String> stringValues = new HashSet<>();
+    // sorted for binary search
+    private final long[] longValues;
+    private final double[] doubleValues;
+
+    InPredicate(Column column, Object[] values) {
+      this.column = column;
+      if (column.isString()) {
+        for (Object value : values) {
+          stringValues.add(UTF8String.fromString(value.toString()));
+        }
+        longValues = null;
+        doubleValues = null;
+      } else if (!column.isFloatingPoint()) {
+        // fractional literals never match an integer column
+        longValues =
+            Arrays.stream(values)
+                .map(Number.class::cast)
+                .filter(InPredicate::isExactLong)
+                .mapToLong(Number::longValue)
+                .sorted()
+                .toArray();
+        doubleValues = null;
+      } else {
+        doubleValues =
+            Arrays.stream(values)
+                .mapToDouble(v -> ((Number) v).doubleValue())
+                .map(v -> v == 0.0d ? 0.0d : v)
+                .sorted()
+                .toArray();
+        longValues = null;
+      }
+    }
+
+    private static boolean isExactLong(Number number) {
+      return isIntegral(number) || number.doubleValue() == Math.rint(number.doubleValue());
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      if (longValues != null) {
+        for (int i = 0; i < numRows; i++) {
+          result[i] = Arrays.binarySearch(longValues, column.getLong(i)) >= 0;
+        }
+      } else if (doubleValues != null) {
+        for (int i = 0; i < numRows; i++) {
+          double value = column.getDouble(i);
+          result[i] = Arrays.binarySearch(doubleValues, value == 0.0d ? 0.0d : value) >= 0;
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          result[i] = stringValues.contains(column.getUTF8String(i));
+        }
+      }
+    }
+  }
+
+  private static class StringPredicate extends Predicate {
+    private final Column column;
+    private final UTF8String value;
+    private final StringOp op;
+
+    StringPredicate(Column column, String value, StringOp op) {
+      this.column = column;
+      this.value = UTF8String.fromString(value);
+      this.op = op;
+    }
+
+    @Override
+    void evaluate(int numRows, boolean[] result) {
+      switch (op) {
+        case STARTS_WITH:
+          for (int i = 0; i < numRows; i++) {
+            result[i] = column.getUTF8String(i).startsWith(value);
+          }
+          break;
+        case ENDS_WITH:
+          for (int i = 0; i < numRows; i++) {
+            result[i] = column.getUTF8String(i).endsWith(value);
+          }
+          break;
+        default:
+          for (int i = 0; i < numRows; i++) {
+            result[i] = column.getUTF8String(i).contains(value);
+          }
+      }
+    }
+  }
+
+  private static boolean isIntegral(Number number) {
+    return number instanceof Byte
+        || number instanceof Short
+        || number instanceof Integer
+        || number instanceof Long;
+  }
+
+  /** Compare doubles with the Spark ordering, NaN is larger than any value and -0.0 equals 0.0 */
+  private static int compareDoubles(double a, double b) {
+    if (a < b) {
+      return -1;
+    } else if (a > b) {
+      return 1;
+    } else if (a == b) {
+      return 0;
+    }
+    return Double.compare(a, b);
+  }
+}
@@ -0,0 +1,129 @@
+package io.tiledb.spark;
+
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.execution.vectorized.WritableColumnVector;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only Spark array column vector of a fixed size multi-value TileDB attribute.
+ *
+ * <p>All cells hold cellValNum values, the values of a batch are stored contiguously in a single
+ * element vector and the array of a row is located arithmetically, no per-row offsets and lengths
+ * are written.
+ */
+public class TileDBFixedArrayVector extends ColumnVector {
+
+  private final WritableColumnVector values;
+  private final int cellValNum;
+
+  /**
+   * @param type Spark array type of the attribute
+   * @param capacity initial number of rows
+   * @param cellValNum number of values per cell
+   */
+  public TileDBFixedArrayVector(ArrayType type, int capacity, int cellValNum) {
+    super(type);
+    this.cellValNum = cellValNum;
+    this.values = new OnHeapColumnVector(capacity * cellValNum, type.elementType());
+  }
+
+  /** @return vector of the values of all cells, filled by the partition scan */
+  public WritableColumnVector getValues() {
+    return values;
+  }
+
+  /** @return number of values per cell */
+  public int getCellValNum() {
+    return cellValNum;
+  }
+
+  @Override
+  public void close() {
+    values.close();
+  }
+
+  @Override
+  public boolean hasNull() {
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return false;
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    return new ColumnarArray(values, rowId * cellValNum, cellValNum);
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected ColumnVector getChild(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,125 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Pair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Range planning of the two-phase late-materialization scan.
+ *
+ * <p>A partition first reads the filtered columns and the dimensions, the coordinates of the rows
+ * matching the pushed filters are turned into a few ranges per dimension, and the projected columns
+ * are then read over these ranges only. The ranges cover a superset of the matching cells, the
+ * filters are evaluated again on the second read.
+ */
+public final class TileDBLateMaterialization {
+
+  // Upper bound of the number of ranges per dimension of the second read
+  static final int MAX_RANGES = 256;
+
+  // Upper bound of the matching cells collected by the first read, above it the filters are not
+  // selective enough to pay off the second read (default 1M cells)
+  static final int MAX_CELLS = 1024 * 1024;
+
+  private TileDBLateMaterialization() {}
+
+  /**
+   * Coalesce coordinates into at most maxRanges inclusive ranges, the smallest gaps between
+   * consecutive coordinates are closed first
+   *
+   * @param values coordinates, modified
+   * @param count number of coordinates
+   * @param maxRanges maximum number of ranges
+   * @return sorted (start, end) ranges covering all coordinates
+   */
+  static List<long[]> coalesce(long[] values, int count, int maxRanges) {
+    List<long[]> ranges = new ArrayList<>();
+    if (count == 0) {
+      return ranges;
+    }
+    Arrays.sort(values, 0, count);
+    long[] gaps = new long[count - 1];
+    for (int i = 1; i < count; i++) {
+      gaps[i - 1] = values[i] - values[i - 1];
+    }
+    // gaps up to the threshold are closed, at most maxRanges - 1 gaps are larger
+    long threshold = 1;
+    if (gaps.length >= maxRanges) {
+      long[] sorted = gaps.clone();
+      Arrays.sort(sorted);
+      threshold = Math.max(threshold, sorted[sorted.length - maxRanges]);
+    }
+    long start = values[0];
+    for (int i = 1; i < count; i++) {
+      if (gaps[i - 1] > threshold) {
+        ranges.add(new long[] {start, values[i - 1]});
+        start = values[i];
+      }
+    }
+    ranges.add(new long[] {start, values[count - 1]});
+    return ranges;
+  }
+
+  /**
+   * @param ranges sorted (start, end) ranges
+   * @param bounds (start, end) ranges the result is restricted to
+   * @return non empty intersections of the ranges with the bounds
+   */
+  static List<long[]> intersect(List<long[]> ranges, List<long[]> bounds) {
+    List<long[]> result = new ArrayList<>();
+    for (long[] range : ranges) {
+      for (long[] bound : bounds) {
+        long start = Math.max(range[0], bound[0]);
+        long end = Math.min(range[1], bound[1]);
+        if (start <= end) {
+          result.add(new long[] {start, end});
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Lay out ranges per dimension as partition subarrays, the scan reads the union of the ranges of
+   * each dimension
+   *
+   * @param dimensionRanges non empty ranges of every dimension
+   * @return subarrays, the last range of a dimension is repeated when it has fewer ranges
+   */
+  static List<List<Range>> toSubarrays(List<List<Range>> dimensionRanges) {
+    int numSubarrays = 0;
+    for (List<Range> ranges : dimensionRanges) {
+      numSubarrays = Math.max(numSubarrays, ranges.size());
+    }
+    List<List<Range>> subarrays = new ArrayList<>(numSubarrays);
+    for (int s = 0; s < numSubarrays; s++) {
+      List<Range> subarray = new ArrayList<>(dimensionRanges.size());
+      for (List<Range> ranges : dimensionRanges) {
+        subarray.add(ranges.get(Math.min(s, ranges.size() - 1)));
+      }
+      subarrays.add(subarray);
+    }
+    return subarrays;
+  }
+
+  /**
+   * @param range (start, end) range
+   * @param type Java class of the dimension coordinates
+   * @return range of the dimension
+   */
+  static Range toRange(long[] range, Class<?> type) {
+    return new Range(new Pair<>(box(range[0], type), box(range[1], type)));
+  }
+
+  private static Object box(long value, Class<?> type) {
+    if (type == Byte.class) {
+      return (byte) value;
+    } else if (type == Short.class) {
+      return (short) value;
+    } else if (type == Integer.class) {
+      return (int) value;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,147 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.TileDBError;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only view of a column vector that is filled from the query buffers on first access.
+ *
+ * <p>The partition scan sets a loader for every batch, the loader copies the results of the last
+ * query submission into the underlying vector the first time a value of the batch is read. Columns
+ * that are never read by the downstream operators are never copied. The view does not own the
+ * underlying vector.
+ */
+public class TileDBLazyColumnVector extends ColumnVector {
+
+  /** Copies the results of a query submission into the underlying vector */
+  public interface Loader {
+    void load() throws TileDBError;
+  }
+
+  private final ColumnVector vector;
+
+  // loader of the current batch, null once the batch was copied
+  private Loader loader;
+
+  public TileDBLazyColumnVector(ColumnVector vector) {
+    super(vector.dataType());
+    this.vector = vector;
+  }
+
+  /**
+   * Set the loader of a new batch, the underlying vector is copied again on the next access
+   *
+   * @param loader loader of the batch
+   */
+  public void setLoader(Loader loader) {
+    this.loader = loader;
+  }
+
+  /** @return true if the current batch was copied into the underlying vector */
+  public boolean isLoaded() {
+    return loader == null;
+  }
+
+  private ColumnVector loaded() {
+    if (loader != null) {
+      try {
+        loader.load();
+      } catch (TileDBError err) {
+        throw new RuntimeException(err.getMessage());
+      }
+      loader = null;
+    }
+    return vector;
+  }
+
+  @Override
+  public void close() {
+    // the underlying vector is owned and closed by the partition scan
+  }
+
+  @Override
+  public boolean hasNull() {
+    // TileDB attributes are not nullable
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return loaded().isNullAt(rowId);
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    return loaded().getBoolean(rowId);
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    return loaded().getByte(rowId);
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    return loaded().getShort(rowId);
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    return loaded().getInt(rowId);
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    return loaded().getLong(rowId);
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    return loaded().getFloat(rowId);
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    return loaded().getDouble(rowId);
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    return loaded().getArray(rowId);
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    return loaded().getMap(ordinal);
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    return loaded().getDecimal(rowId, precision, scale);
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    return loaded().getUTF8String(rowId);
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    return loaded().getBinary(rowId);
+  }
+
+  @Override
+  protected ColumnVector getChild(int ordinal) {
+    // struct columns are not read from TileDB
+    throw new UnsupportedOperationException();
+  }
+}
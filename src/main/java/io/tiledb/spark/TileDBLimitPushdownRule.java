@@ -0,0 +1,98 @@
+package io.tiledb.spark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.Literal;
+import org.apache.spark.sql.catalyst.plans.logical.LocalLimit;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation;
+import scala.collection.JavaConverters;
+
+/**
+ * Optimizer rule pushing a limit over a TileDB array down to the reader.
+ *
+ * <p>The reader then plans as few partitions as possible, sizes the query buffers for the limit and
+ * stops submitting once a partition returned enough rows. The limit is only pushed if the filters
+ * below it are fully handled by the reader, and Spark still applies it to the results. The rule is
+ * installed by {@link TileDBSparkSessionExtensions}.
+ */
+public class TileDBLimitPushdownRule extends Rule<LogicalPlan> {
+
+  static Logger log = Logger.getLogger(TileDBLimitPushdownRule.class.getName());
+
+  // datasource option holding the pushed down limit
+  static final String LIMIT_OPTION = "limit";
+
+  @Override
+  public LogicalPlan apply(LogicalPlan plan) {
+    LogicalPlan result = plan.mapChildren(this::apply);
+    if (result instanceof LocalLimit) {
+      LogicalPlan pushed = pushDown((LocalLimit) result);
+      if (pushed != null) {
+        return pushed;
+      }
+    }
+    return result;
+  }
+
+  /** @return the rewritten plan, or null if the limit cannot be pushed down */
+  private LogicalPlan pushDown(LocalLimit limit) {
+    if (!(limit.limitExpr() instanceof Literal)
+        || !(((Literal) limit.limitExpr()).value() instanceof Integer)) {
+      return null;
+    }
+    int limitValue = (Integer) ((Literal) limit.limitExpr()).value();
+
+    List<Expression> conditions = new ArrayList<>();
+    DataSourceV2Relation relation =
+        TileDBAggregatePushdownRule.findRelation(limit.child(), conditions);
+    if (relation == null) {
+      return null;
+    }
+    Map<String, String> options = JavaConverters.mapAsJavaMap(relation.options());
+    if (options.containsKey(TileDBAggregatePushdownRule.AGGREGATE_OPTION)) {
+      // the rows of the relation are partial aggregates
+      return null;
+    }
+    if (options.containsKey(LIMIT_OPTION)
+        && Long.parseLong(options.get(LIMIT_OPTION)) <= limitValue) {
+      return null;
+    }
+
+    // rows dropped by Spark after the scan would not count towards the limit
+    TileDBDataSourceReader reader = (TileDBDataSourceReader) relation.newReader();
+    if (TileDBAggregatePushdownRule.handledFilters(conditions, reader) == null) {
+      return null;
+    }
+
+    Map<String, String> limitOptions = new HashMap<>(options);
+    limitOptions.put(LIMIT_OPTION, Integer.toString(limitValue));
+    // the output of the relation is unchanged, so the plan above it stays resolved
+    DataSourceV2Relation limitedRelation =
+        relation.copy(
+            relation.source(),
+            relation.output(),
+            TileDBAggregatePushdownRule.toScalaMap(limitOptions),
+            relation.tableIdent(),
+            relation.userSpecifiedSchema());
+    log.debug("Pushing down limit " + limitValue + " to " + relation.simpleString());
+    return replace(limit, relation, limitedRelation);
+  }
+
+  private static LogicalPlan replace(
+      LogicalPlan plan, LogicalPlan relation, LogicalPlan replacement) {
+    if (plan == relation) {
+      return replacement;
+    }
+    // the plan is a chain of single child nodes down to the relation
+    LogicalPlan child = replace(plan.children().head(), relation, replacement);
+    return plan.withNewChildren(
+        TileDBAggregatePushdownRule.toSeq(Collections.singletonList(child)));
+  }
+}
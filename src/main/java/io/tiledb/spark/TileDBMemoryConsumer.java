@@ -0,0 +1,82 @@
+package io.tiledb.spark;
+
+import java.io.IOException;
+import org.apache.log4j.Logger;
+import org.apache.spark.memory.MemoryConsumer;
+import org.apache.spark.memory.TaskMemoryManager;
+
+/**
+ * Accounts the TileDB query buffers of a task with the Spark task memory manager.
+ *
+ * <p>The buffers are registered in the Tungsten memory mode of the executor, off-heap when Spark
+ * off-heap memory is enabled. Buffers in use by a query cannot be spilled, a spill request from
+ * another consumer of the task is forwarded to an optional handler. The reservation is released
+ * when the handler could release its buffers, without a handler spilling is a no-op.
+ */
+public class TileDBMemoryConsumer extends MemoryConsumer {
+
+  static Logger log = Logger.getLogger(TileDBMemoryConsumer.class.getName());
+
+  /** Releases the buffers of the owner when another consumer of the task needs memory */
+  public interface SpillHandler {
+    /**
+     * @return true if the buffers were released, they are reserved again before their next use
+     * @throws IOException if the buffered data could not be flushed
+     */
+    boolean release() throws IOException;
+  }
+
+  // called when another consumer of the task asks for memory, may be null
+  private final SpillHandler onSpill;
+
+  /**
+   * @param taskMemoryManager memory manager of the task
+   * @param onSpill called when another consumer of the task needs memory, may be null
+   */
+  public TileDBMemoryConsumer(TaskMemoryManager taskMemoryManager, SpillHandler onSpill) {
+    super(
+        taskMemoryManager,
+        taskMemoryManager.pageSizeBytes(),
+        taskMemoryManager.getTungstenMemoryMode());
+    this.onSpill = onSpill;
+  }
+
+  /**
+   * Acquire memory for buffers that can only be allocated in full
+   *
+   * @param size size in bytes
+   * @return true if the memory was granted, nothing is held otherwise
+   */
+  public boolean tryAcquire(long size) {
+    long granted = acquireMemory(size);
+    if (granted < size) {
+      freeMemory(granted);
+      log.debug("Task memory manager denied " + size + " bytes, granted " + granted);
+      return false;
+    }
+    return true;
+  }
+
+  /** @return bytes currently held */
+  public long getHeldBytes() {
+    return getUsed();
+  }
+
+  /** Release all the memory held */
+  public void releaseAll() {
+    if (used > 0) {
+      freeMemory(used);
+    }
+  }
+
+  @Override
+  public long spill(long size, MemoryConsumer trigger) throws IOException {
+    // the buffers are released by their owner, not while a query may still use them
+    if (trigger == this || onSpill == null || !onSpill.release()) {
+      return 0;
+    }
+    long released = used;
+    releaseAll();
+    return released;
+  }
+}
@@ -0,0 +1,233 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Context;
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.TileDBError;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+import org.apache.spark.SparkEnv;
+
+/**
+ * JVM wide pool of off-heap NativeArray buffers reused by the partition scans and writers of an
+ * executor.
+ *
+ * <p>Buffers are bucketed by datatype and size class, so a request is served by any idle buffer of
+ * its class and the buffers returned hold at least the requested number of values. Small buffers
+ * are rounded up to a power of two, large ones to a multiple of {@link #LARGE_SIZE_GRANULARITY} to
+ * bound the rounding overhead.
+ *
+ * <p>The capacity is an executor setting read once from the Spark configuration. It bounds all the
+ * bytes of the pooled buffers, handed out or idle. Idle buffers are freed to make room for new
+ * ones, and buffers beyond the capacity are allocated unpooled, so a full pool never blocks a task.
+ */
+public class TileDBNativeArrayPool {
+
+  static Logger log = Logger.getLogger(TileDBNativeArrayPool.class.getName());
+
+  // Spark configuration key of the pool capacity in bytes, 0 disables pooling
+  static final String CAPACITY_CONF = "spark.tiledb.native_buffer_pool.capacity";
+
+  // Default upper bound in bytes of the buffers allocated by the pool (default 1gb)
+  static final long DEFAULT_CAPACITY = 1024L * 1024 * 1024;
+
+  // Buffers up to this size are rounded up to a power of two (default 16mb)
+  static final long MAX_POWER_OF_TWO_SIZE = 1024L * 1024 * 16;
+
+  // Larger buffers are rounded up to a multiple of this size (default 1mb)
+  static final long LARGE_SIZE_GRANULARITY = 1024L * 1024;
+
+  private static class Holder {
+    private static final TileDBNativeArrayPool instance = new TileDBNativeArrayPool(readCapacity());
+  }
+
+  private final long capacity;
+
+  // idle buffers keyed by (datatype, size class in bytes)
+  private final Map<List<Object>, ArrayDeque<NativeArray>> idle = new HashMap<>();
+  private long idleBytes;
+
+  // pooled buffers not released yet, the bytes include pending allocations
+  private final Set<NativeArray> handedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+  private long handedOutBytes;
+
+  // context owning the pooled buffers, held for the lifetime of the JVM
+  private TileDBResourceCache.Lease<Context> ctxLease;
+
+  TileDBNativeArrayPool(long capacity) {
+    this.capacity = capacity;
+  }
+
+  /** @return the pool of this JVM */
+  public static TileDBNativeArrayPool getInstance() {
+    return Holder.instance;
+  }
+
+  private static long readCapacity() {
+    SparkEnv env = SparkEnv.get();
+    if (env == null) {
+      return DEFAULT_CAPACITY;
+    }
+    return env.conf().getSizeAsBytes(CAPACITY_CONF, String.valueOf(DEFAULT_CAPACITY));
+  }
+
+  /** @return upper bound in bytes of the buffers allocated by the pool, 0 if pooling is disabled */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Acquire a buffer holding at least the requested number of values. When the pool is full even
+   * after freeing its idle buffers, an unpooled buffer of the exact size is allocated, it is freed
+   * on release.
+   *
+   * @param type datatype of the buffer values
+   * @param nvalues number of values
+   * @return buffer, release it to the pool once it is no longer used
+   * @throws TileDBError A TileDB exception
+   */
+  public NativeArray acquire(Datatype type, long nvalues) throws TileDBError {
+    long values = Math.max(nvalues, 1);
+    long bytes = sizeClass(values * type.getNativeSize());
+    boolean pooled = false;
+    Context ctx;
+    synchronized (this) {
+      if (capacity > 0) {
+        ArrayDeque<NativeArray> buffers = idle.get(Arrays.asList(type, bytes));
+        if (buffers != null && !buffers.isEmpty()) {
+          NativeArray buffer = buffers.pop();
+          idleBytes -= bytes;
+          handedOut.add(buffer);
+          handedOutBytes += bytes;
+          return buffer;
+        }
+        pooled = reserve(bytes);
+      }
+      if (ctxLease == null) {
+        ctxLease = TileDBResourceCache.getInstance().acquireContext(Collections.emptyMap());
+      }
+      ctx = ctxLease.get();
+    }
+    if (!pooled) {
+      return new NativeArray(ctx, Math.toIntExact(values), type);
+    }
+    NativeArray buffer;
+    try {
+      buffer = new NativeArray(ctx, Math.toIntExact(bytes / type.getNativeSize()), type);
+    } catch (TileDBError | RuntimeException err) {
+      synchronized (this) {
+        handedOutBytes -= bytes;
+      }
+      throw err;
+    }
+    synchronized (this) {
+      handedOut.add(buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * Reserve room for a new pooled buffer, idle buffers are freed to make room
+   *
+   * @param bytes size of the new buffer
+   * @return true if the buffer fits the capacity
+   */
+  private boolean reserve(long bytes) {
+    long excess = handedOutBytes + idleBytes + bytes - capacity;
+    if (excess > 0 && idleBytes > 0) {
+      freeIdle(excess);
+      excess = handedOutBytes + idleBytes + bytes - capacity;
+    }
+    if (excess > 0) {
+      log.debug(
+          "Native buffer pool full with "
+              + handedOutBytes
+              + " bytes in use, allocating "
+              + bytes
+              + " bytes unpooled");
+      return false;
+    }
+    handedOutBytes += bytes;
+    return true;
+  }
+
+  /** Free idle buffers until at least the given number of bytes were freed, or none is left */
+  private void freeIdle(long bytes) {
+    long freed = 0;
+    Iterator<ArrayDeque<NativeArray>> it = idle.values().iterator();
+    while (it.hasNext() && freed < bytes) {
+      ArrayDeque<NativeArray> buffers = it.next();
+      while (!buffers.isEmpty() && freed < bytes) {
+        NativeArray buffer = buffers.pop();
+        freed += buffer.getNBytes();
+        buffer.close();
+      }
+      if (buffers.isEmpty()) {
+        it.remove();
+      }
+    }
+    idleBytes -= freed;
+  }
+
+  /**
+   * Return a buffer acquired from the pool, the caller must not use it anymore
+   *
+   * @param buffer buffer to release, ignored if null
+   */
+  public void release(NativeArray buffer) {
+    if (buffer == null) {
+      return;
+    }
+    synchronized (this) {
+      // buffers not allocated by the pool are freed
+      if (handedOut.remove(buffer)) {
+        long bytes = buffer.getNBytes();
+        handedOutBytes -= bytes;
+        idle.computeIfAbsent(Arrays.asList(buffer.getNativeType(), bytes), k -> new ArrayDeque<>())
+            .push(buffer);
+        idleBytes += bytes;
+        return;
+      }
+    }
+    buffer.close();
+  }
+
+  /** Free all idle buffers */
+  public synchronized void clear() {
+    log.debug("Freeing " + idleBytes + " bytes of idle native buffers");
+    freeIdle(idleBytes);
+  }
+
+  /** @return bytes held by the idle buffers of the pool */
+  public synchronized long getIdleBytes() {
+    return idleBytes;
+  }
+
+  /** @return bytes of the buffers handed out by the pool and not released yet */
+  public synchronized long getHandedOutBytes() {
+    return handedOutBytes;
+  }
+
+  /**
+   * @param bytes requested size in bytes
+   * @return smallest power of two holding the requested bytes up to {@link #MAX_POWER_OF_TWO_SIZE},
+   *     the smallest multiple of {@link #LARGE_SIZE_GRANULARITY} above
+   */
+  static long sizeClass(long bytes) {
+    if (bytes <= 1) {
+      return 1;
+    }
+    if (bytes > MAX_POWER_OF_TWO_SIZE) {
+      return (bytes + LARGE_SIZE_GRANULARITY - 1) / LARGE_SIZE_GRANULARITY * LARGE_SIZE_GRANULARITY;
+    }
+    return Long.highestOneBit(bytes - 1) << 1;
+  }
+}
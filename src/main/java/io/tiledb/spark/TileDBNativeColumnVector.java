@@ -0,0 +1,167 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.TileDBError;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.Platform;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only Spark column vector that reads fixed size scalar values directly from the off-heap
+ * memory of a TileDB query buffer.
+ *
+ * <p>The vector does not own the NativeArray it is bound to, the partition scan manages the buffer
+ * lifetime and re-binds the vector whenever the query buffers are reallocated. Values are only
+ * valid until the next query submission, which matches the Spark contract for a ColumnarBatch
+ * handed out by an InputPartitionReader.
+ */
+public class TileDBNativeColumnVector extends ColumnVector {
+
+  // TileDB datatype of the values stored in the native buffer
+  private final Datatype nativeType;
+
+  // start address of the bound native buffer
+  private long address;
+
+  public TileDBNativeColumnVector(DataType sparkType, Datatype nativeType) {
+    super(sparkType);
+    this.nativeType = nativeType;
+  }
+
+  /**
+   * Check if a TileDB datatype can be exposed to Spark without copying
+   *
+   * @param nativeType TileDB datatype of the query buffer
+   * @return true if the native values can be read in place
+   */
+  public static boolean isSupported(Datatype nativeType) {
+    switch (nativeType) {
+      case TILEDB_FLOAT32:
+      case TILEDB_FLOAT64:
+      case TILEDB_INT8:
+      case TILEDB_INT16:
+      case TILEDB_UINT8:
+      case TILEDB_INT32:
+      case TILEDB_UINT16:
+      case TILEDB_INT64:
+      case TILEDB_UINT32:
+      case TILEDB_UINT64:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Bind the vector to the native memory of a query buffer
+   *
+   * @param buffer query buffer holding the values of this column
+   * @throws TileDBError A TileDB exception
+   */
+  public void setBuffer(NativeArray buffer) throws TileDBError {
+    this.address = util.nativeArrayAddress(buffer);
+  }
+
+  @Override
+  public void close() {
+    // the native buffer is owned and closed by the partition scan
+    address = 0;
+  }
+
+  @Override
+  public boolean hasNull() {
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return false;
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    return Platform.getByte(null, address + rowId);
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    // TILEDB_UINT8 is upcast to a Spark short
+    if (nativeType == Datatype.TILEDB_UINT8) {
+      return (short) (Platform.getByte(null, address + rowId) & 0xFF);
+    }
+    return Platform.getShort(null, address + 2L * rowId);
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    // TILEDB_UINT16 is upcast to a Spark int
+    if (nativeType == Datatype.TILEDB_UINT16) {
+      return Platform.getShort(null, address + 2L * rowId) & 0xFFFF;
+    }
+    return Platform.getInt(null, address + 4L * rowId);
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    // TILEDB_UINT32 is upcast to a Spark long
+    if (nativeType == Datatype.TILEDB_UINT32) {
+      return Platform.getInt(null, address + 4L * rowId) & 0xFFFFFFFFL;
+    }
+    return Platform.getLong(null, address + 8L * rowId);
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    return Platform.getFloat(null, address + 4L * rowId);
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    return Platform.getDouble(null, address + 8L * rowId);
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected ColumnVector getChild(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+}
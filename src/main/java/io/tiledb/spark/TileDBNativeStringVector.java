@@ -0,0 +1,155 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.NativeArray;
+import io.tiledb.java.api.TileDBError;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.Platform;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only Spark string column vector over the off-heap offsets and data buffers of a var-length
+ * TileDB query field.
+ *
+ * <p>Strings are returned as UTF8String views of the native data buffer, the uint64 byte offsets
+ * are read in place. As for {@link TileDBNativeColumnVector} the partition scan owns the buffers
+ * and re-binds the vector after every query submission, the strings are only valid until then.
+ */
+public class TileDBNativeStringVector extends ColumnVector {
+
+  // start addresses of the bound native buffers
+  private long offsetsAddress;
+  private long dataAddress;
+
+  // number of rows and of data bytes returned by the last query submission
+  private int numRows;
+  private long numBytes;
+
+  public TileDBNativeStringVector(DataType sparkType) {
+    super(sparkType);
+  }
+
+  /**
+   * Bind the vector to the results of a query submission
+   *
+   * @param offsets query offsets buffer
+   * @param data query data buffer
+   * @param numRows number of offsets returned by the query
+   * @param numBytes number of data bytes returned by the query
+   * @throws TileDBError A TileDB exception
+   */
+  public void setBuffers(NativeArray offsets, NativeArray data, int numRows, long numBytes)
+      throws TileDBError {
+    setAddresses(
+        util.nativeArrayAddress(offsets), util.nativeArrayAddress(data), numRows, numBytes);
+  }
+
+  void setAddresses(long offsetsAddress, long dataAddress, int numRows, long numBytes) {
+    this.offsetsAddress = offsetsAddress;
+    this.dataAddress = dataAddress;
+    this.numRows = numRows;
+    this.numBytes = numBytes;
+  }
+
+  private long startOffset(int rowId) {
+    return Platform.getLong(null, offsetsAddress + 8L * rowId);
+  }
+
+  private long endOffset(int rowId) {
+    return rowId + 1 < numRows ? startOffset(rowId + 1) : numBytes;
+  }
+
+  @Override
+  public void close() {
+    // the native buffers are owned and closed by the partition scan
+    offsetsAddress = 0;
+    dataAddress = 0;
+  }
+
+  @Override
+  public boolean hasNull() {
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return false;
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    long start = startOffset(rowId);
+    return UTF8String.fromAddress(null, dataAddress + start, (int) (endOffset(rowId) - start));
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    long start = startOffset(rowId);
+    byte[] bytes = new byte[(int) (endOffset(rowId) - start)];
+    Platform.copyMemory(null, dataAddress + start, bytes, Platform.BYTE_ARRAY_OFFSET, bytes.length);
+    return bytes;
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected ColumnVector getChild(int ordinal) {
+    throw new UnsupportedOperationException();
+  }
+}
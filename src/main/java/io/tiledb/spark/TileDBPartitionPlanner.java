@@ -0,0 +1,684 @@
+package io.tiledb.spark;
+
+import static io.tiledb.spark.util.addEpsilon;
+
+import io.tiledb.java.api.Array;
+import io.tiledb.java.api.Context;
+import io.tiledb.java.api.Pair;
+import io.tiledb.java.api.Query;
+import io.tiledb.java.api.QueryType;
+import io.tiledb.java.api.TileDBError;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plans read partitions from the estimated number of cells of the subarrays rather than from their
+ * coordinate volume.
+ *
+ * <p>Subarrays are split on their first dimension, like the volume based planning, so every
+ * partition gets roughly the same share of the estimated cells. Leading and trailing regions
+ * without cells are cut off, subarrays without cells are dropped.
+ *
+ * <p>The cells are either estimated from the fragment metadata, or sampled with TileDB result size
+ * estimates over a coarse grid of the subarrays, which also captures skew within fragments.
+ *
+ * <p>When there are more subarrays than partitions, for instance from a large pushed down IN list,
+ * the subarrays are packed into multi-range partitions by their estimated cost.
+ */
+public class TileDBPartitionPlanner {
+
+  // Total number of grid cells the first dimension of the subarrays is sampled at
+  private static final int SAMPLE_GRID_CELLS = 256;
+
+  /** Interval of the first dimension of a subarray holding an estimated number of cells */
+  static class WeightedInterval {
+    // continuous floating point coordinates, coordinate k covers [k, k + ulp(k))
+    final double start;
+    final double end;
+    // inclusive integral coordinates, kept exact since doubles lose int64 values above 2^53
+    final long first;
+    final long last;
+    final double cells;
+
+    WeightedInterval(double start, double end, double cells) {
+      this(start, end, 0, 0, cells);
+    }
+
+    private WeightedInterval(double start, double end, long first, long last, double cells) {
+      this.start = start;
+      this.end = end;
+      this.first = first;
+      this.last = last;
+      this.cells = cells;
+    }
+
+    /** @return interval of the integral coordinates from first to last inclusive */
+    static WeightedInterval ofCells(long first, long last, double cells) {
+      return new WeightedInterval(first, (double) last + 1, first, last, cells);
+    }
+  }
+
+  /**
+   * Check if subarrays can be split on their first dimension by the planner
+   *
+   * @param subarrays subarrays to split
+   * @return true if the first dimension is numeric
+   */
+  public static boolean canPlan(List<SubArrayRanges> subarrays) {
+    for (SubArrayRanges subarray : subarrays) {
+      Range range = subarray.getRanges().get(0);
+      if (!(range.getFirst() instanceof Number) || !(range.getSecond() instanceof Number)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Split subarrays where fragments hold cells, using the fragment non-empty domains and cell
+   * counts
+   *
+   * @param subarrays subarrays to split
+   * @param metadata array metadata
+   * @param partitions number of partitions to aim for
+   * @return partition subarrays
+   * @throws TileDBError A TileDB exception
+   */
+  public static List<SubArrayRanges> planByFragments(
+      List<SubArrayRanges> subarrays, TileDBArrayMetadata metadata, int partitions)
+      throws TileDBError {
+    List<List<WeightedInterval>> intervals = new ArrayList<>();
+    for (SubArrayRanges subarray : subarrays) {
+      intervals.add(fragmentIntervals(subarray, metadata.getFragments()));
+    }
+    return split(subarrays, intervals, partitions);
+  }
+
+  /**
+   * Pack subarrays into about the given number of partitions, each read by a single multi-range
+   * query
+   *
+   * <p>A multi-range query reads the cross product of the ranges of each dimension, so only
+   * subarrays with the same ranges on all the dimensions but the one with the most distinct ranges
+   * are packed together. Within such a group subarrays are assigned to the least loaded partition,
+   * largest estimated cost first.
+   *
+   * @param subarrays disjoint subarrays
+   * @param metadata array metadata
+   * @param partitions number of partitions to aim for
+   * @return subarrays of each partition
+   */
+  public static List<List<SubArrayRanges>> pack(
+      List<SubArrayRanges> subarrays, TileDBArrayMetadata metadata, int partitions) {
+    List<List<SubArrayRanges>> result = new ArrayList<>();
+    if (subarrays.size() <= Math.max(partitions, 1)) {
+      for (SubArrayRanges subarray : subarrays) {
+        result.add(Collections.singletonList(subarray));
+      }
+      return result;
+    }
+
+    int packDimension = dimensionWithMostRanges(subarrays);
+    Map<List<Range>, List<SubArrayRanges>> groups = new LinkedHashMap<>();
+    Map<SubArrayRanges, Double> costs = new LinkedHashMap<>();
+    double totalCost = 0;
+    for (SubArrayRanges subarray : subarrays) {
+      List<Range> key = new ArrayList<>(subarray.getRanges());
+      key.remove(packDimension);
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(subarray);
+      double cost = estimateCost(subarray, metadata);
+      costs.put(subarray, cost);
+      totalCost += cost;
+    }
+
+    for (List<SubArrayRanges> group : groups.values()) {
+      double groupCost = 0;
+      for (SubArrayRanges subarray : group) {
+        groupCost += costs.get(subarray);
+      }
+      int bins = (int) Math.max(Math.round(partitions * groupCost / Math.max(totalCost, 1)), 1);
+      bins = Math.min(bins, group.size());
+
+      // longest processing time first: the next largest subarray goes to the least loaded bin
+      group.sort(Comparator.comparing((SubArrayRanges subarray) -> costs.get(subarray)).reversed());
+      List<List<SubArrayRanges>> binSubarrays = new ArrayList<>();
+      double[] loads = new double[bins];
+      PriorityQueue<Integer> leastLoaded =
+          new PriorityQueue<>(bins, Comparator.comparingDouble((Integer bin) -> loads[bin]));
+      for (int i = 0; i < bins; i++) {
+        binSubarrays.add(new ArrayList<>());
+        leastLoaded.add(i);
+      }
+      for (SubArrayRanges subarray : group) {
+        int bin = leastLoaded.poll();
+        binSubarrays.get(bin).add(subarray);
+        loads[bin] += costs.get(subarray);
+        leastLoaded.add(bin);
+      }
+      for (List<SubArrayRanges> bin : binSubarrays) {
+        // read the ranges of a partition in coordinate order
+        bin.sort(Comparator.comparing(subarray -> subarray.getRanges().get(packDimension)));
+        result.add(bin);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Estimate the cost of reading a subarray as its estimated number of cells, plus a fixed cost per
+   * range
+   */
+  private static double estimateCost(SubArrayRanges subarray, TileDBArrayMetadata metadata) {
+    return estimateCells(subarray, metadata) + 1;
+  }
+
+  /** Estimate the number of cells of a subarray from the fragment metadata */
+  private static double estimateCells(SubArrayRanges subarray, TileDBArrayMetadata metadata) {
+    List<List<Range>> ranges = new ArrayList<>();
+    for (Range range : subarray.getRanges()) {
+      ranges.add(Collections.singletonList(range));
+    }
+    double cells = 0;
+    for (TileDBArrayMetadata.Fragment fragment : metadata.getFragments()) {
+      cells += fragment.getCellNum() * fragment.estimateSelectivity(ranges);
+    }
+    return cells;
+  }
+
+  /**
+   * Number of partitions needed to read a limited number of rows, a single partition is planned
+   * when the limit fits in the estimated cells of one of the partitions
+   *
+   * @param subarrays subarrays to read
+   * @param metadata array metadata
+   * @param limit maximum number of rows to read
+   * @param partitions number of partitions without a limit
+   * @return number of partitions to aim for
+   */
+  public static int partitionsForLimit(
+      List<SubArrayRanges> subarrays, TileDBArrayMetadata metadata, long limit, int partitions) {
+    if (metadata.getFragments().isEmpty()) {
+      // no fragment metadata to estimate from
+      return partitions;
+    }
+    double cells = 0;
+    for (SubArrayRanges subarray : subarrays) {
+      cells += estimateCells(subarray, metadata);
+    }
+    return partitionsForLimit(limit, cells, partitions);
+  }
+
+  static int partitionsForLimit(long limit, double cells, int partitions) {
+    if (partitions <= 1 || limit <= cells / partitions) {
+      return 1;
+    }
+    return partitions;
+  }
+
+  private static int dimensionWithMostRanges(List<SubArrayRanges> subarrays) {
+    int dimensions = subarrays.get(0).getRanges().size();
+    int packDimension = 0;
+    int mostRanges = 0;
+    for (int i = 0; i < dimensions; i++) {
+      Set<Range> distinct = new HashSet<>();
+      for (SubArrayRanges subarray : subarrays) {
+        distinct.add(subarray.getRanges().get(i));
+      }
+      if (distinct.size() > mostRanges) {
+        mostRanges = distinct.size();
+        packDimension = i;
+      }
+    }
+    return packDimension;
+  }
+
+  /**
+   * Split subarrays by sampling the TileDB result size estimates over a grid of their first
+   * dimension
+   *
+   * @param subarrays subarrays to split
+   * @param metadata array metadata
+   * @param uri array URI
+   * @param options TileDB datasource options
+   * @param partitions number of partitions to aim for
+   * @return partition subarrays
+   * @throws TileDBError A TileDB exception
+   */
+  public static List<SubArrayRanges> planBySampling(
+      List<SubArrayRanges> subarrays,
+      TileDBArrayMetadata metadata,
+      URI uri,
+      TileDBDataSourceOptions options,
+      int partitions)
+      throws TileDBError {
+    // the number of estimate queries is capped, unless there are more subarrays than grid cells
+    int gridCells = Math.max(SAMPLE_GRID_CELLS / Math.max(subarrays.size(), 1), 1);
+    String dimension = metadata.getDimensionNames().get(0);
+    List<List<WeightedInterval>> intervals = new ArrayList<>();
+    TileDBResourceCache cache = TileDBResourceCache.getInstance();
+    try (TileDBResourceCache.Lease<Context> ctx =
+            cache.acquireContext(options.getTileDBConfigMap());
+        TileDBResourceCache.Lease<Array> array =
+            cache.acquireReadArray(options.getTileDBConfigMap(), uri, metadata.getTimestamp())) {
+      for (SubArrayRanges subarray : subarrays) {
+        intervals.add(sampleIntervals(ctx.get(), array.get(), dimension, subarray, gridCells));
+      }
+    }
+    return split(subarrays, intervals, partitions);
+  }
+
+  /**
+   * Estimate the cells of the first dimension of a subarray from the result size estimates of the
+   * cells of a grid
+   *
+   * @param ctx TileDB context
+   * @param array array opened for reading
+   * @param dimension name of the first dimension
+   * @param subarray subarray
+   * @param gridCells number of grid cells
+   * @return disjoint intervals in ascending order
+   * @throws TileDBError A TileDB exception
+   */
+  private static List<WeightedInterval> sampleIntervals(
+      Context ctx, Array array, String dimension, SubArrayRanges subarray, int gridCells)
+      throws TileDBError {
+    List<Range> ranges = subarray.getRanges();
+    Range first = ranges.get(0);
+    Class type = first.dataClassType();
+
+    List<WeightedInterval> intervals = new ArrayList<>();
+    if (isIntegral(first.getFirst())) {
+      long low = ((Number) first.getFirst()).longValue();
+      long high = ((Number) first.getSecond()).longValue();
+      long step = (long) Math.max(Math.ceil(width(low, high) / gridCells), 1);
+      long start = low;
+      long end;
+      do {
+        end = lastCell(start, step, high);
+        long estimate =
+            estimateResultSize(
+                ctx, array, dimension, ranges, convert(start, type), convert(end, type));
+        if (estimate > 0) {
+          intervals.add(WeightedInterval.ofCells(start, end, estimate));
+        }
+        start = end + 1;
+      } while (end < high);
+      return intervals;
+    }
+
+    double low = toStart(first.getFirst());
+    double high = toEnd(first.getSecond());
+    double step = (high - low) / gridCells;
+    for (double start = low; start < high; start += step) {
+      double end = Math.min(start + step, high);
+      long estimate =
+          estimateResultSize(
+              ctx, array, dimension, ranges, convert(start, type), convert(end, type));
+      if (estimate > 0) {
+        intervals.add(new WeightedInterval(start, end, estimate));
+      }
+    }
+    return intervals;
+  }
+
+  /**
+   * Estimate the result size of a subarray with another range on its first dimension
+   *
+   * @return size in bytes of the fixed size first dimension, proportional to the number of cells
+   */
+  private static long estimateResultSize(
+      Context ctx, Array array, String dimension, List<Range> ranges, Number start, Number end)
+      throws TileDBError {
+    try (Query query = new Query(array, QueryType.TILEDB_READ)) {
+      query.addRange(0, start, end);
+      for (int i = 1; i < ranges.size(); i++) {
+        Range range = ranges.get(i);
+        if (range.getFirst() instanceof String) {
+          query.addRangeVar(i, range.getFirst().toString(), range.getSecond().toString());
+        } else {
+          query.addRange(i, range.getFirst(), range.getSecond());
+        }
+      }
+      return query.getEstResultSize(ctx, dimension);
+    }
+  }
+
+  /**
+   * Estimate the cells of the first dimension of a subarray from the fragments overlapping it
+   *
+   * @param subarray subarray
+   * @param fragments array fragments
+   * @return disjoint intervals in ascending order
+   */
+  private static List<WeightedInterval> fragmentIntervals(
+      SubArrayRanges subarray, List<TileDBArrayMetadata.Fragment> fragments) {
+    List<Range> ranges = subarray.getRanges();
+    Range first = ranges.get(0);
+    boolean integral = isIntegral(first.getFirst());
+
+    List<WeightedInterval> segments = new ArrayList<>();
+    for (TileDBArrayMetadata.Fragment fragment : fragments) {
+      // fraction of the fragment cells within the other dimensions of the subarray
+      double selectivity = 1.0;
+      for (int i = 1; i < ranges.size(); i++) {
+        selectivity *= fragment.estimateSelectivity(i, Collections.singletonList(ranges.get(i)));
+      }
+      Pair domain = fragment.getNonEmptyDomain().get(0);
+      if (selectivity == 0 || !(domain.getFirst() instanceof Number)) {
+        continue;
+      }
+      double cells = fragment.getCellNum() * selectivity;
+      if (integral) {
+        long fragmentFirst = ((Number) domain.getFirst()).longValue();
+        long fragmentLast = ((Number) domain.getSecond()).longValue();
+        long start = Math.max(((Number) first.getFirst()).longValue(), fragmentFirst);
+        long end = Math.min(((Number) first.getSecond()).longValue(), fragmentLast);
+        if (start <= end) {
+          segments.add(
+              WeightedInterval.ofCells(
+                  start, end, cells * width(start, end) / width(fragmentFirst, fragmentLast)));
+        }
+      } else {
+        double fragmentStart = toStart(domain.getFirst());
+        double fragmentEnd = toEnd(domain.getSecond());
+        double start = Math.max(toStart(first.getFirst()), fragmentStart);
+        double end = Math.min(toEnd(first.getSecond()), fragmentEnd);
+        if (start < end) {
+          segments.add(
+              new WeightedInterval(
+                  start, end, cells * (end - start) / (fragmentEnd - fragmentStart)));
+        }
+      }
+    }
+    return toDisjointIntervals(segments, integral);
+  }
+
+  /**
+   * Split overlapping intervals at all their bounds, assuming cells are uniformly distributed
+   * within each interval
+   *
+   * @param segments possibly overlapping intervals
+   * @param integral true if the intervals hold integral coordinates
+   * @return disjoint intervals with cells in ascending order
+   */
+  static List<WeightedInterval> toDisjointIntervals(
+      List<WeightedInterval> segments, boolean integral) {
+    if (integral) {
+      return toDisjointCells(segments);
+    }
+    TreeSet<Double> bounds = new TreeSet<>();
+    for (WeightedInterval segment : segments) {
+      bounds.add(segment.start);
+      bounds.add(segment.end);
+    }
+    List<WeightedInterval> intervals = new ArrayList<>();
+    Double start = null;
+    for (Double end : bounds) {
+      if (start != null) {
+        double cells = 0;
+        for (WeightedInterval segment : segments) {
+          if (segment.start <= start && segment.end >= end) {
+            cells += segment.cells * (end - start) / (segment.end - segment.start);
+          }
+        }
+        if (cells > 0) {
+          intervals.add(new WeightedInterval(start, end, cells));
+        }
+      }
+      start = end;
+    }
+    return intervals;
+  }
+
+  private static List<WeightedInterval> toDisjointCells(List<WeightedInterval> segments) {
+    // an interval starts at the first cell of each segment and after its last cell
+    TreeSet<Long> firsts = new TreeSet<>();
+    long last = Long.MIN_VALUE;
+    for (WeightedInterval segment : segments) {
+      firsts.add(segment.first);
+      if (segment.last < Long.MAX_VALUE) {
+        firsts.add(segment.last + 1);
+      }
+      last = Math.max(last, segment.last);
+    }
+    List<WeightedInterval> intervals = new ArrayList<>();
+    for (Long start : firsts) {
+      if (start > last) {
+        break;
+      }
+      Long next = firsts.higher(start);
+      long end = next == null ? last : next - 1;
+      double cells = 0;
+      for (WeightedInterval segment : segments) {
+        if (segment.first <= start && segment.last >= end) {
+          cells += segment.cells * width(start, end) / width(segment.first, segment.last);
+        }
+      }
+      if (cells > 0) {
+        intervals.add(WeightedInterval.ofCells(start, end, cells));
+      }
+    }
+    return intervals;
+  }
+
+  /**
+   * Split subarrays on their first dimension so that each partition holds about the same number of
+   * estimated cells
+   *
+   * @param subarrays subarrays to split
+   * @param intervals disjoint intervals with cells of each subarray, in ascending order
+   * @param partitions number of partitions to aim for
+   * @return partition subarrays, subarrays without cells are dropped
+   * @throws TileDBError A TileDB exception
+   */
+  static List<SubArrayRanges> split(
+      List<SubArrayRanges> subarrays, List<List<WeightedInterval>> intervals, int partitions)
+      throws TileDBError {
+    double total = 0;
+    for (List<WeightedInterval> subarrayIntervals : intervals) {
+      for (WeightedInterval interval : subarrayIntervals) {
+        total += interval.cells;
+      }
+    }
+    List<SubArrayRanges> result = new ArrayList<>();
+    if (total <= 0) {
+      return result;
+    }
+    double target = total / Math.max(partitions, 1);
+
+    for (int s = 0; s < subarrays.size(); s++) {
+      List<WeightedInterval> subarrayIntervals = intervals.get(s);
+      if (subarrayIntervals.isEmpty()) {
+        // no cells in the subarray
+        continue;
+      }
+      SubArrayRanges subarray = subarrays.get(s);
+      if (isIntegral(first(subarray).getFirst())) {
+        splitCells(result, subarray, subarrayIntervals, target);
+      } else {
+        splitContinuous(result, subarray, subarrayIntervals, target);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Split a subarray on an integral first dimension, the bounds and cuts are exact cells
+   *
+   * @param result partition subarrays to add to
+   * @param subarray subarray to split
+   * @param intervals disjoint intervals with cells of the subarray, in ascending order
+   * @param target number of cells per partition
+   */
+  private static void splitCells(
+      List<SubArrayRanges> result,
+      SubArrayRanges subarray,
+      List<WeightedInterval> intervals,
+      double target) {
+    Range first = first(subarray);
+    Class type = first.dataClassType();
+
+    long start = Math.max(((Number) first.getFirst()).longValue(), intervals.get(0).first);
+    double cells = 0;
+    for (WeightedInterval interval : intervals) {
+      if (cells == 0) {
+        // a partition starts with its first cells
+        start = Math.max(start, interval.first);
+      }
+      long position = interval.first;
+      double remaining = interval.cells;
+      while (cells + remaining >= target) {
+        double needed = target - cells;
+        long count = Math.round(width(position, interval.last) * needed / remaining);
+        remaining -= needed;
+        cells = 0;
+        if (count < 1 || position > interval.last) {
+          continue;
+        }
+        long end = lastCell(position, count, interval.last);
+        // the last partition is added after the loop, a cell after Long.MAX_VALUE would overflow
+        if (end < Long.MAX_VALUE) {
+          result.add(withFirstRange(subarray, convert(start, type), convert(end, type)));
+          start = end + 1;
+          position = end + 1;
+        }
+      }
+      cells += remaining;
+    }
+    // the last partition of the subarray ends with its last cells
+    long end =
+        Math.min(
+            ((Number) first.getSecond()).longValue(), intervals.get(intervals.size() - 1).last);
+    if (start <= end) {
+      result.add(withFirstRange(subarray, convert(start, type), convert(end, type)));
+    }
+  }
+
+  /**
+   * Split a subarray on a floating point first dimension
+   *
+   * @param result partition subarrays to add to
+   * @param subarray subarray to split
+   * @param intervals disjoint intervals with cells of the subarray, in ascending order
+   * @param target number of cells per partition
+   * @throws TileDBError A TileDB exception
+   */
+  private static void splitContinuous(
+      List<SubArrayRanges> result,
+      SubArrayRanges subarray,
+      List<WeightedInterval> intervals,
+      double target)
+      throws TileDBError {
+    Range first = first(subarray);
+    Class type = first.dataClassType();
+
+    Number start = convert(intervals.get(0).start, type);
+    double cells = 0;
+    for (WeightedInterval interval : intervals) {
+      if (cells == 0) {
+        // a partition starts with its first cells
+        Number intervalStart = convert(interval.start, type);
+        if (compare(intervalStart, start) > 0) {
+          start = intervalStart;
+        }
+      }
+      double position = interval.start;
+      double remaining = interval.cells;
+      while (cells + remaining >= target) {
+        double needed = target - cells;
+        double cut = position + (interval.end - position) * needed / remaining;
+        remaining -= needed;
+        position = cut;
+        cells = 0;
+        Number end = convert(cut, type);
+        Number next = addEpsilon(end, first.tileDBDatatype());
+        if (compare(start, end) <= 0 && compare(next, end) > 0) {
+          result.add(withFirstRange(subarray, start, end));
+          start = next;
+        }
+      }
+      cells += remaining;
+    }
+    // the last partition of the subarray ends with its last cells
+    Number end = convert(intervals.get(intervals.size() - 1).end, type);
+    if (compare(end, (Number) first.getSecond()) > 0) {
+      end = (Number) first.getSecond();
+    }
+    if (compare(start, end) <= 0) {
+      result.add(withFirstRange(subarray, start, end));
+    }
+  }
+
+  private static Range first(SubArrayRanges subarray) {
+    return subarray.getRanges().get(0);
+  }
+
+  private static SubArrayRanges withFirstRange(SubArrayRanges subarray, Number start, Number end) {
+    List<Range> ranges = new ArrayList<>(subarray.getRanges());
+    ranges.set(0, new Range(new Pair<>(start, end)));
+    return new SubArrayRanges(ranges, subarray.getDatatype());
+  }
+
+  static boolean isIntegral(Object value) {
+    return value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long;
+  }
+
+  /** @return continuous coordinate of the start of an inclusive floating point range bound */
+  static double toStart(Object value) {
+    return ((Number) value).doubleValue();
+  }
+
+  /** @return continuous coordinate of the end of an inclusive floating point range bound */
+  static double toEnd(Object value) {
+    double end = ((Number) value).doubleValue();
+    return end + Math.ulp(end);
+  }
+
+  /** @return number of cells from first to last inclusive, as a double since it may overflow */
+  private static double width(long first, long last) {
+    return (double) last - first + 1;
+  }
+
+  /**
+   * @return last of the given number of cells starting at first, bounded by last, without
+   *     overflowing
+   */
+  private static long lastCell(long first, long cells, long last) {
+    long end = first + cells - 1;
+    return end < first || end > last ? last : end;
+  }
+
+  private static Number convert(long value, Class type) {
+    if (type == Byte.class) {
+      return (byte) value;
+    } else if (type == Short.class) {
+      return (short) value;
+    } else if (type == Integer.class) {
+      return (int) value;
+    }
+    return value;
+  }
+
+  private static Number convert(double value, Class type) {
+    if (type == Float.class) {
+      return (float) value;
+    }
+    return value;
+  }
+
+  private static int compare(Number a, Number b) {
+    return Double.compare(a.doubleValue(), b.doubleValue());
+  }
+}
@@ -4,6 +4,7 @@ import io.tiledb.java.api.*;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import org.apache.spark.sql.types.*;
 
@@ -54,35 +55,21 @@ public class TileDBReadSchema implements Serializable {
     return tiledbSparkSchema;
   }
 
-  private StructType getTileDBSchema(TileDBDataSourceOptions options) throws TileDBError {
-    StructType sparkSchema = new StructType();
-    try (Context ctx = new Context(options.getTileDBConfigMap());
-        // fetch and load the schema (IO)
-        ArraySchema arraySchema = new ArraySchema(ctx, uri.toString());
-        Domain arrayDomain = arraySchema.getDomain()) {
+  /** @return StructType spark schema of all array dimensions and attributes */
+  StructType getTileDBSparkSchema() {
+    // loaded on construction
+    return tiledbSparkSchema;
+  }
 
-      // for every dimension add a struct field
-      for (int i = 0; i < arrayDomain.getNDim(); i++) {
-        try (Dimension dim = arrayDomain.getDimension(i)) {
-          String dimName = dim.getName();
-          this.dimensionIndex.put(dimName, i);
-          this.dimensionName.put(i, dimName);
-          this.dimensionTypes.put(i, dim.getType());
-          // schema is immutable so to iteratively add we need to re-assign
-          sparkSchema = sparkSchema.add(toStructField(dimName, true, dim.getType(), 1l, false));
-        }
-      }
-      // for every attribute add a struct field
-      for (int i = 0; i < arraySchema.getAttributeNum(); i++) {
-        try (Attribute attr = arraySchema.getAttribute(i)) {
-          String attrName = attr.getName();
-          sparkSchema =
-              sparkSchema.add(
-                  toStructField(attrName, false, attr.getType(), attr.getCellValNum(), false));
-        }
-      }
+  private StructType getTileDBSchema(TileDBDataSourceOptions options) throws TileDBError {
+    TileDBArrayMetadata metadata = TileDBArrayMetadataCache.getArrayMetadata(uri, options);
+    List<String> dimensionNames = metadata.getDimensionNames();
+    for (int i = 0; i < dimensionNames.size(); i++) {
+      this.dimensionIndex.put(dimensionNames.get(i), i);
+      this.dimensionName.put(i, dimensionNames.get(i));
+      this.dimensionTypes.put(i, metadata.getDimensionTypes().get(i));
     }
-    return sparkSchema;
+    return metadata.getSparkSchema();
   }
 
   public Optional<Integer> getDimensionId(String dimensionName) {
@@ -98,7 +85,7 @@ public class TileDBReadSchema implements Serializable {
     return Optional.empty();
   }
 
-  private StructField toStructField(
+  static StructField toStructField(
       String name, boolean isDim, Datatype tiledbType, long cellValNum, boolean isNullable)
       throws TileDBError {
     MetadataBuilder metadataBuilder = new MetadataBuilder();
@@ -186,14 +173,16 @@ public class TileDBReadSchema implements Serializable {
           field = new StructField(name, DataTypes.StringType, isNullable, metadata);
           break;
         }
+      case TILEDB_DATETIME_WEEK:
       case TILEDB_DATETIME_DAY:
-        {
-          field = new StructField(name, DataTypes.DateType, isNullable, metadata);
-          break;
-        }
+      case TILEDB_DATETIME_HR:
+      case TILEDB_DATETIME_MIN:
+      case TILEDB_DATETIME_SEC:
       case TILEDB_DATETIME_MS:
+      case TILEDB_DATETIME_US:
+      case TILEDB_DATETIME_NS:
         {
-          field = new StructField(name, DataTypes.TimestampType, isNullable, metadata);
+          field = new StructField(name, TileDBDatetime.sparkType(tiledbType), isNullable, metadata);
           break;
         }
       default:
@@ -0,0 +1,209 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Array;
+import io.tiledb.java.api.Context;
+import io.tiledb.java.api.QueryType;
+import io.tiledb.java.api.TileDBError;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+
+/**
+ * JVM wide cache of TileDB Context objects and read Array handles shared by the partitions running
+ * on an executor (or by the driver when planning).
+ *
+ * <p>Contexts are keyed by their TileDB config map, read arrays by config, URI and open timestamp.
+ * Entries are reference counted, an entry is only closed when it is evicted and no lease on it is
+ * open. Unused entries are evicted in least recently used order once a cache is full, and after
+ * being idle for {@link #IDLE_TIMEOUT_MS}.
+ */
+public class TileDBResourceCache {
+
+  static Logger log = Logger.getLogger(TileDBResourceCache.class.getName());
+
+  // Maximum number of unused entries kept open per cache
+  private static final int MAX_CONTEXTS = 16;
+  private static final int MAX_ARRAYS = 256;
+
+  // Unused entries are closed after being idle for this long
+  private static final long IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+
+  private static final TileDBResourceCache instance = new TileDBResourceCache();
+
+  private final LinkedHashMap<Map<String, String>, Entry<Context>> contexts =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final LinkedHashMap<List<Object>, Entry<Array>> arrays =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private TileDBResourceCache() {
+    ScheduledExecutorService sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "tiledb-resource-cache-evict");
+              thread.setDaemon(true);
+              return thread;
+            });
+    sweeper.scheduleWithFixedDelay(
+        this::evict, IDLE_TIMEOUT_MS, IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /** @return the cache of this JVM */
+  public static TileDBResourceCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Acquire a lease on the Context for a TileDB config
+   *
+   * @param config TileDB config options
+   * @return context lease, close it to release the context
+   * @throws TileDBError A TileDB exception
+   */
+  public synchronized Lease<Context> acquireContext(Map<String, String> config) throws TileDBError {
+    Map<String, String> key = new HashMap<>(config);
+    Entry<Context> entry = contexts.get(key);
+    if (entry == null) {
+      entry = new Entry<>(new Context(key), null);
+      contexts.put(key, entry);
+    }
+    Lease<Context> lease = entry.acquire();
+    evict();
+    return lease;
+  }
+
+  /**
+   * Acquire a lease on an Array opened for reading
+   *
+   * @param config TileDB config options of the context opening the array
+   * @param uri array URI
+   * @param timestamp open timestamp in milliseconds since the epoch
+   * @return array lease, close it to release the array
+   * @throws TileDBError A TileDB exception
+   */
+  public synchronized Lease<Array> acquireReadArray(
+      Map<String, String> config, URI uri, long timestamp) throws TileDBError {
+    List<Object> key = Arrays.asList(new HashMap<>(config), uri.toString(), timestamp);
+    Entry<Array> entry = arrays.get(key);
+    if (entry == null) {
+      // the array keeps its context open for as long as the array is cached
+      Lease<Context> ctx = acquireContext(config);
+      try {
+        Array array =
+            new Array(
+                ctx.get(), uri.toString(), QueryType.TILEDB_READ, BigInteger.valueOf(timestamp));
+        entry = new Entry<>(array, ctx);
+      } catch (TileDBError err) {
+        ctx.close();
+        throw err;
+      }
+      arrays.put(key, entry);
+    }
+    Lease<Array> lease = entry.acquire();
+    evict();
+    return lease;
+  }
+
+  private synchronized void release(Entry<?> entry, boolean evict) {
+    entry.refCount--;
+    entry.lastAccess = System.currentTimeMillis();
+    if (evict) {
+      evict();
+    }
+  }
+
+  /** Close unused entries that are idle or exceed the cache capacity */
+  private synchronized void evict() {
+    // arrays first, they hold a lease on their context
+    evict(arrays, MAX_ARRAYS);
+    evict(contexts, MAX_CONTEXTS);
+  }
+
+  private static <K, T extends AutoCloseable> void evict(
+      LinkedHashMap<K, Entry<T>> cache, int maxEntries) {
+    long now = System.currentTimeMillis();
+    int size = cache.size();
+    // iteration is in least recently used order
+    Iterator<Map.Entry<K, Entry<T>>> it = cache.entrySet().iterator();
+    while (it.hasNext()) {
+      Entry<T> entry = it.next().getValue();
+      if (entry.refCount > 0) {
+        continue;
+      }
+      if (size > maxEntries || now - entry.lastAccess > IDLE_TIMEOUT_MS) {
+        it.remove();
+        size--;
+        entry.close();
+      }
+    }
+  }
+
+  private static class Entry<T extends AutoCloseable> {
+    private final T value;
+    // lease on a resource the value depends on, released when the value is closed
+    private final Lease<?> dependency;
+    private int refCount;
+    private long lastAccess;
+
+    Entry(T value, Lease<?> dependency) {
+      this.value = value;
+      this.dependency = dependency;
+      this.lastAccess = System.currentTimeMillis();
+    }
+
+    Lease<T> acquire() {
+      refCount++;
+      lastAccess = System.currentTimeMillis();
+      return new Lease<>(this);
+    }
+
+    void close() {
+      try {
+        value.close();
+      } catch (Exception err) {
+        log.warn("Error closing cached TileDB resource: " + err.getMessage());
+      }
+      if (dependency != null) {
+        // called while evicting, the dependency is evicted by the caller if needed
+        dependency.release(false);
+      }
+    }
+  }
+
+  /** Reference to a cached resource, the resource must not be used after the lease is closed */
+  public static class Lease<T extends AutoCloseable> implements AutoCloseable {
+    private final Entry<T> entry;
+    private boolean released;
+
+    private Lease(Entry<T> entry) {
+      this.entry = entry;
+    }
+
+    /** @return the cached resource */
+    public T get() {
+      return entry.value;
+    }
+
+    @Override
+    public void close() {
+      release(true);
+    }
+
+    private void release(boolean evict) {
+      if (released) {
+        return;
+      }
+      released = true;
+      instance.release(entry, evict);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package io.tiledb.spark;
+
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.vectorized.ColumnVector;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.apache.spark.sql.vectorized.ColumnarMap;
+import org.apache.spark.unsafe.types.UTF8String;
+
+/**
+ * Read-only view of the rows of a column vector selected by a filter.
+ *
+ * <p>Row i of the view is row selection[i] of the underlying vector, so filtered batches are
+ * compacted without copying the column values. The view does not own the underlying vector.
+ */
+public class TileDBSelectedColumnVector extends ColumnVector {
+
+  private final ColumnVector vector;
+
+  // row ids of the underlying vector in the view
+  private int[] selection;
+
+  public TileDBSelectedColumnVector(ColumnVector vector) {
+    super(vector.dataType());
+    this.vector = vector;
+  }
+
+  /**
+   * Set the rows of the view
+   *
+   * @param selection selected row ids of the underlying vector, in ascending order
+   */
+  public void setSelection(int[] selection) {
+    this.selection = selection;
+  }
+
+  @Override
+  public void close() {
+    // the underlying vector is owned and closed by the partition scan
+  }
+
+  @Override
+  public boolean hasNull() {
+    // TileDB attributes are not nullable
+    return false;
+  }
+
+  @Override
+  public int numNulls() {
+    return 0;
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return vector.isNullAt(selection[rowId]);
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    return vector.getBoolean(selection[rowId]);
+  }
+
+  @Override
+  public byte getByte(int rowId) {
+    return vector.getByte(selection[rowId]);
+  }
+
+  @Override
+  public short getShort(int rowId) {
+    return vector.getShort(selection[rowId]);
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    return vector.getInt(selection[rowId]);
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    return vector.getLong(selection[rowId]);
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    return vector.getFloat(selection[rowId]);
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    return vector.getDouble(selection[rowId]);
+  }
+
+  @Override
+  public ColumnarArray getArray(int rowId) {
+    return vector.getArray(selection[rowId]);
+  }
+
+  @Override
+  public ColumnarMap getMap(int ordinal) {
+    return vector.getMap(selection[ordinal]);
+  }
+
+  @Override
+  public Decimal getDecimal(int rowId, int precision, int scale) {
+    return vector.getDecimal(selection[rowId], precision, scale);
+  }
+
+  @Override
+  public UTF8String getUTF8String(int rowId) {
+    return vector.getUTF8String(selection[rowId]);
+  }
+
+  @Override
+  public byte[] getBinary(int rowId) {
+    return vector.getBinary(selection[rowId]);
+  }
+
+  @Override
+  protected ColumnVector getChild(int ordinal) {
+    // struct columns are not read from TileDB
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,23 @@
+package io.tiledb.spark;
+
+import org.apache.spark.sql.SparkSessionExtensions;
+import scala.runtime.AbstractFunction1;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Spark session extensions of the TileDB datasource, enabled with
+ * `spark.sql.extensions=io.tiledb.spark.TileDBSparkSessionExtensions`.
+ *
+ * <p>Installs {@link TileDBAggregatePushdownRule} to compute simple aggregates in the TileDB
+ * partition scans, and {@link TileDBLimitPushdownRule} to stop the scans early under a limit.
+ */
+public class TileDBSparkSessionExtensions
+    extends AbstractFunction1<SparkSessionExtensions, BoxedUnit> {
+
+  @Override
+  public BoxedUnit apply(SparkSessionExtensions extensions) {
+    extensions.injectOptimizerRule(session -> new TileDBAggregatePushdownRule());
+    extensions.injectOptimizerRule(session -> new TileDBLimitPushdownRule());
+    return BoxedUnit.UNIT;
+  }
+}
@@ -1,12 +1,97 @@
 package io.tiledb.spark;
 
 import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.NativeArray;
 import io.tiledb.java.api.TileDBError;
+import io.tiledb.libtiledb.SWIGTYPE_p_void;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.spark.unsafe.Platform;
 
 public class util {
 
+  // SWIG keeps the raw pointer accessor package private, resolve it once and reuse it
+  private static volatile Method swigPointerAccessor;
+
+  /**
+   * Returns the address of the off-heap memory backing a NativeArray, so that it can be read and
+   * written in place with org.apache.spark.unsafe.Platform
+   *
+   * @param array native array
+   * @return memory address of the first element
+   * @throws TileDBError if the address can not be resolved
+   */
+  public static long nativeArrayAddress(NativeArray array) throws TileDBError {
+    try {
+      Method accessor = swigPointerAccessor;
+      if (accessor == null) {
+        accessor = SWIGTYPE_p_void.class.getDeclaredMethod("getCPtr", SWIGTYPE_p_void.class);
+        accessor.setAccessible(true);
+        swigPointerAccessor = accessor;
+      }
+      return (long) accessor.invoke(null, array.toVoidPointer());
+    } catch (ReflectiveOperationException | RuntimeException err) {
+      throw new TileDBError("Cannot resolve native buffer address: " + err.getMessage());
+    }
+  }
+
+  /**
+   * Returns the size in bytes of the elements of a primitive Java array
+   *
+   * @param javaArray Java array
+   * @return element size, 0 if the array is not a supported primitive array
+   */
+  public static int javaArrayElementSize(Object javaArray) {
+    if (javaArray instanceof byte[]) {
+      return 1;
+    } else if (javaArray instanceof short[]) {
+      return 2;
+    } else if (javaArray instanceof int[] || javaArray instanceof float[]) {
+      return 4;
+    } else if (javaArray instanceof long[] || javaArray instanceof double[]) {
+      return 8;
+    }
+    return 0;
+  }
+
+  /**
+   * Copies the first values of a primitive Java array into the memory of a NativeArray with the
+   * same element size
+   *
+   * @param javaArray source Java array
+   * @param nvalues number of values to copy
+   * @param array destination native array
+   * @throws TileDBError if the element sizes differ or the destination is too small
+   */
+  public static void copyToNativeArray(Object javaArray, int nvalues, NativeArray array)
+      throws TileDBError {
+    int elementSize = javaArrayElementSize(javaArray);
+    if (elementSize == 0 || elementSize != array.getNativeTypeSize()) {
+      throw new TileDBError(
+          "Cannot copy Java array to native array of type " + array.getNativeType());
+    }
+    if (nvalues > array.getSize()) {
+      throw new TileDBError("Native array of " + array.getSize() + " values is too small");
+    }
+    long offset;
+    if (javaArray instanceof byte[]) {
+      offset = Platform.BYTE_ARRAY_OFFSET;
+    } else if (javaArray instanceof short[]) {
+      offset = Platform.SHORT_ARRAY_OFFSET;
+    } else if (javaArray instanceof int[]) {
+      offset = Platform.INT_ARRAY_OFFSET;
+    } else if (javaArray instanceof float[]) {
+      offset = Platform.FLOAT_ARRAY_OFFSET;
+    } else if (javaArray instanceof long[]) {
+      offset = Platform.LONG_ARRAY_OFFSET;
+    } else {
+      offset = Platform.DOUBLE_ARRAY_OFFSET;
+    }
+    Platform.copyMemory(
+        javaArray, offset, null, nativeArrayAddress(array), (long) nvalues * elementSize);
+  }
+
   /* Returns v + eps, where eps is the smallest value for the datatype such that v + eps > v. */
   public static Number addEpsilon(Number value, Datatype type) throws TileDBError {
     switch (type) {
@@ -13,15 +13,23 @@ public class TileDBMetricsSource implements Source {
   public static final String queryReadTimerTaskName = "query-read-task";
   public static final String queryReadTimerName = "query-read-start-to-close";
   public static final String tileDBReadQuerySubmitTimerName = "tiledb-read-query-submit";
+  public static final String queryWaitSubmitTimerName = "query-wait-submit";
   public static final String queryInitTimerName = "query-init";
   public static final String queryAllocBufferTimerName = "query-alloc-buffers";
   public static final String queryGetScalarAttributeTimerName = "query-get-scalar-attribute";
   public static final String queryGetVariableLengthAttributeTimerName =
       "query-get-variable-length-attribute";
+  public static final String queryGetArrowColumnTimerName = "query-get-arrow-column";
   public static final String queryGetDimensionTimerName = "query-get-dimension";
+  public static final String queryGetColumnsTimerName = "query-get-columns";
+  public static final String queryLateMaterializationProbeTimerName =
+      "query-late-materialization-probe";
+  public static final String queryLateMaterializationFallbackCounterName =
+      "query-late-materialization-fallback";
   public static final String queryCloseNativeArraysTimerName = "query-close-native-arrays";
   public static final String queryNextTimerName = "query-next";
   public static final String queryGetTimerName = "query-get";
+  public static final String queryAggregateTimerName = "query-aggregate";
 
   // Data source metrics
   public static final String dataSourceReadSchemaTimerName = "data-source-read-schema";
@@ -35,6 +43,8 @@ public class TileDBMetricsSource implements Source {
       "data-source-check-and-merge-ranges";
   public static final String dataSourceComputeNeededSplitsToReduceToMedianVolumeTimerName =
       "data-source-computer-needed-splits";
+  public static final String dataSourceEstimateStatisticsTimerName =
+      "data-source-estimate-statistics";
 
   // Write metrics
   public static final String queryWriteTaskTimerName = "query-write-task";
@@ -58,14 +68,20 @@ public class TileDBMetricsSource implements Source {
     // Read metrics
     metricRegistry.timer(queryReadTimerName);
     metricRegistry.timer(tileDBReadQuerySubmitTimerName);
+    metricRegistry.timer(queryWaitSubmitTimerName);
     metricRegistry.timer(queryInitTimerName);
     metricRegistry.timer(queryAllocBufferTimerName);
     metricRegistry.timer(queryGetScalarAttributeTimerName);
     metricRegistry.timer(queryGetVariableLengthAttributeTimerName);
+    metricRegistry.timer(queryGetArrowColumnTimerName);
     metricRegistry.timer(queryGetDimensionTimerName);
+    metricRegistry.timer(queryGetColumnsTimerName);
+    metricRegistry.timer(queryLateMaterializationProbeTimerName);
+    metricRegistry.counter(queryLateMaterializationFallbackCounterName);
     metricRegistry.timer(queryCloseNativeArraysTimerName);
     metricRegistry.timer(queryNextTimerName);
     metricRegistry.timer(queryGetTimerName);
+    metricRegistry.timer(queryAggregateTimerName);
 
     // Data source metrics
     metricRegistry.timer(dataSourceReadSchemaTimerName);
@@ -75,6 +91,7 @@ public class TileDBMetricsSource implements Source {
     metricRegistry.timer(dataSourceBuildRangeFromFilterTimerName);
     metricRegistry.timer(dataSourceCheckAndMergeRangesTimerName);
     metricRegistry.timer(dataSourceComputeNeededSplitsToReduceToMedianVolumeTimerName);
+    metricRegistry.timer(dataSourceEstimateStatisticsTimerName);
 
     // Write metrics
     metricRegistry.timer(queryWriteTimerName);
@@ -3,6 +3,7 @@ package org.apache.spark.metrics;
 import static org.apache.spark.metrics.TileDBMetricsSource.sourceName;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import org.apache.spark.SparkEnv;
 import org.apache.spark.TaskContext;
@@ -15,7 +16,8 @@ import scala.collection.Seq;
 public class TileDBReadMetricsUpdater extends MetricsUpdater {
   private InputMetrics inputMetrics = null;
   private TileDBMetricsSource source = null;
-  private HashMap<String, Timer> timers;
+  // started timers by name and by thread, columns may be copied on several threads at once
+  private HashMap<String, Map<Thread, Timer>> timers;
 
   /**
    * Get source and set inputMetrics if inside a task
@@ -47,11 +49,26 @@ public class TileDBReadMetricsUpdater extends MetricsUpdater {
    *
    * @param timerName timer to start
    */
-  public synchronized void startTimer(String timerName) {
+  public void startTimer(String timerName) {
+    Timer timer;
     if (source != null) {
-      timers.put(timerName, new TileDBMetricsTimer(source, timerName));
+      timer = new TileDBMetricsTimer(source, timerName);
     } else {
-      timers.put(timerName, new SimpleTimer());
+      timer = new SimpleTimer();
+    }
+    synchronized (this) {
+      timers.computeIfAbsent(timerName, k -> new HashMap<>()).put(Thread.currentThread(), timer);
+    }
+  }
+
+  /**
+   * Increment a counter of the metrics source
+   *
+   * @param counterName counter to increment
+   */
+  public void incrementCounter(String counterName) {
+    if (source != null) {
+      source.metricRegistry().counter(counterName).inc();
     }
   }
 
@@ -76,9 +93,19 @@ public class TileDBReadMetricsUpdater extends MetricsUpdater {
    */
   @Override
   public Long finish(String timerName) {
-    if (timers.containsKey(timerName)) {
-      return timers.get(timerName).stopTimer();
+    Timer timer;
+    synchronized (this) {
+      Map<Thread, Timer> started = timers.get(timerName);
+      if (started == null) {
+        return null;
+      }
+      timer = started.get(Thread.currentThread());
+      // a timer started by another thread, e.g. the task thread finishing the reader timers
+      if (timer == null && started.size() == 1) {
+        timer = started.values().iterator().next();
+      }
     }
-    return null;
+    // stopped outside the lock, stopping a timer reports to the spark metrics system
+    return timer != null ? timer.stopTimer() : null;
   }
 }
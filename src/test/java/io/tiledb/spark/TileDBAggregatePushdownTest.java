@@ -0,0 +1,148 @@
+package io.tiledb.spark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import org.apache.spark.sql.sources.EqualTo;
+import org.apache.spark.sql.sources.Filter;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.collection.JavaConverters;
+
+public class TileDBAggregatePushdownTest extends SharedJavaSparkSession {
+
+  private String testArrayURIString(String arrayName) {
+    Path arraysPath = Paths.get("src", "test", "resources", "data", "1.6", arrayName);
+    return "file://".concat(arraysPath.toAbsolutePath().toString());
+  }
+
+  @Before
+  public void enablePushdown() {
+    List<Rule<LogicalPlan>> rules = Collections.singletonList(new TileDBAggregatePushdownRule());
+    session()
+        .experimental()
+        .extraOptimizations_$eq(JavaConverters.asScalaBufferConverter(rules).asScala().toSeq());
+  }
+
+  @After
+  public void disablePushdown() {
+    session()
+        .experimental()
+        .extraOptimizations_$eq(
+            JavaConverters.asScalaBufferConverter(new ArrayList<Rule<LogicalPlan>>())
+                .asScala()
+                .toSeq());
+  }
+
+  private Dataset<Row> quickStartSparse() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    return dfRead;
+  }
+
+  private boolean isPushedDown(Dataset<Row> df) {
+    return df.queryExecution().optimizedPlan().toString().contains("tiledb_partial_");
+  }
+
+  @Test
+  public void testEncodeAggregate() {
+    StructType schema =
+        new StructType()
+            .add("rows", DataTypes.IntegerType, false)
+            .add("a", DataTypes.FloatType, false);
+    TileDBAggregate aggregate =
+        new TileDBAggregate(
+            "rows",
+            Arrays.asList(
+                new TileDBAggregate.Function("count", null),
+                new TileDBAggregate.Function("sum", "a"),
+                new TileDBAggregate.Function("max", "a")),
+            new Filter[] {new EqualTo("rows", 1)},
+            schema);
+    TileDBAggregate decoded = TileDBAggregate.decode(aggregate.encode());
+    Assert.assertEquals("rows", decoded.getGroupColumn());
+    Assert.assertEquals(3, decoded.getFunctions().size());
+    Assert.assertEquals(1, decoded.getFilters().length);
+    StructType partial = decoded.getPartialSchema();
+    Assert.assertEquals(DataTypes.IntegerType, partial.fields()[0].dataType());
+    Assert.assertEquals(DataTypes.LongType, partial.fields()[1].dataType());
+    Assert.assertEquals(DataTypes.DoubleType, partial.fields()[2].dataType());
+    Assert.assertEquals(DataTypes.FloatType, partial.fields()[3].dataType());
+  }
+
+  @Test
+  public void testQuickStartSparseGlobalAggregate() {
+    quickStartSparse();
+    Dataset<Row> df =
+        session().sql("SELECT COUNT(*), SUM(a), MIN(rows), MAX(cols), COUNT(a) FROM tmp");
+    Assert.assertTrue(isPushedDown(df));
+    List<Row> rows = df.collectAsList();
+    Assert.assertEquals(1, rows.size());
+    Assert.assertEquals(3, rows.get(0).getLong(0));
+    Assert.assertEquals(6, rows.get(0).getLong(1));
+    Assert.assertEquals(1, rows.get(0).getInt(2));
+    Assert.assertEquals(4, rows.get(0).getInt(3));
+    Assert.assertEquals(3, rows.get(0).getLong(4));
+  }
+
+  @Test
+  public void testQuickStartSparseGroupedAggregate() {
+    quickStartSparse();
+    Dataset<Row> df =
+        session().sql("SELECT rows, COUNT(*), SUM(a), MAX(a) FROM tmp GROUP BY rows ORDER BY rows");
+    Assert.assertTrue(isPushedDown(df));
+    List<Row> rows = df.collectAsList();
+    Assert.assertEquals(2, rows.size());
+    // A[1, 1] == 1
+    Assert.assertEquals(1, rows.get(0).getInt(0));
+    Assert.assertEquals(1, rows.get(0).getLong(1));
+    Assert.assertEquals(1, rows.get(0).getLong(2));
+    Assert.assertEquals(1, rows.get(0).getInt(3));
+    // A[2, 3] == 3 and A[2, 4] == 2
+    Assert.assertEquals(2, rows.get(1).getInt(0));
+    Assert.assertEquals(2, rows.get(1).getLong(1));
+    Assert.assertEquals(5, rows.get(1).getLong(2));
+    Assert.assertEquals(3, rows.get(1).getInt(3));
+  }
+
+  @Test
+  public void testQuickStartSparseFilteredAggregate() {
+    quickStartSparse();
+    Dataset<Row> df = session().sql("SELECT COUNT(*), SUM(a) FROM tmp WHERE rows = 2 AND a > 2");
+    Assert.assertTrue(isPushedDown(df));
+    List<Row> rows = df.collectAsList();
+    Assert.assertEquals(1, rows.get(0).getLong(0));
+    Assert.assertEquals(3, rows.get(0).getLong(1));
+
+    // no cells match, the count is still defined
+    df = session().sql("SELECT COUNT(*), SUM(a) FROM tmp WHERE rows = 3");
+    rows = df.collectAsList();
+    Assert.assertEquals(0, rows.get(0).getLong(0));
+    Assert.assertTrue(rows.get(0).isNullAt(1));
+  }
+
+  @Test
+  public void testQuickStartSparseUnsupportedAggregate() {
+    quickStartSparse();
+    // averages are computed by Spark
+    Dataset<Row> df = session().sql("SELECT AVG(a) FROM tmp");
+    Assert.assertFalse(isPushedDown(df));
+    Assert.assertEquals(2.0, df.collectAsList().get(0).getDouble(0), 0.0001);
+  }
+}
@@ -0,0 +1,37 @@
+package io.tiledb.spark;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import org.apache.spark.sql.sources.v2.DataSourceOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBArrayMetadataCacheTest {
+
+  private URI testArrayURI(String arrayName) {
+    Path arraysPath = Paths.get("src", "test", "resources", "data", "1.6", arrayName);
+    return URI.create("file://".concat(arraysPath.toAbsolutePath().toString()));
+  }
+
+  @Test
+  public void testMetadataCachedUntilArrayChanges() throws Exception {
+    URI uri = testArrayURI("quickstart_sparse_array");
+    TileDBDataSourceOptions options =
+        new TileDBDataSourceOptions(new DataSourceOptions(new HashMap<>()));
+
+    TileDBArrayMetadata metadata = TileDBArrayMetadataCache.getArrayMetadata(uri, options);
+    Assert.assertSame(metadata, TileDBArrayMetadataCache.getArrayMetadata(uri, options));
+
+    Assert.assertEquals(2, metadata.getDimensionNames().size());
+    Assert.assertEquals(3, metadata.getSparkSchema().size());
+    Assert.assertEquals(2, metadata.getNonEmptyDomain().size());
+    Assert.assertFalse(metadata.getFragments().isEmpty());
+    for (TileDBArrayMetadata.Fragment fragment : metadata.getFragments()) {
+      Assert.assertTrue(fragment.isSparse());
+      Assert.assertTrue(fragment.getTimestampEnd() <= metadata.getTimestamp());
+      Assert.assertEquals(2, fragment.getNonEmptyDomain().size());
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import io.tiledb.java.api.TileDBError;
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.Platform;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBColumnCopierTest {
+
+  @Test
+  public void testCopyInts() throws Exception {
+    int[] values = new int[] {1, -2, 3};
+    long address = Platform.allocateMemory(4L * values.length);
+    try {
+      Platform.copyMemory(values, Platform.INT_ARRAY_OFFSET, null, address, 4L * values.length);
+      OnHeapColumnVector vector = new OnHeapColumnVector(4, DataTypes.IntegerType);
+      TileDBColumnCopier.valueCopier(Datatype.TILEDB_INT32, false)
+          .copy(address, vector, values.length);
+      for (int i = 0; i < values.length; i++) {
+        Assert.assertEquals(values[i], vector.getInt(i));
+      }
+      vector.close();
+    } finally {
+      Platform.freeMemory(address);
+    }
+  }
+
+  @Test
+  public void testCopyUnsignedWidened() throws Exception {
+    long address = Platform.allocateMemory(4);
+    try {
+      Platform.putByte(null, address, (byte) 0xFF);
+      Platform.putByte(null, address + 1, (byte) 1);
+      OnHeapColumnVector vector = new OnHeapColumnVector(2, DataTypes.ShortType);
+      TileDBColumnCopier.valueCopier(Datatype.TILEDB_UINT8, false).copy(address, vector, 2);
+      Assert.assertEquals(255, vector.getShort(0));
+      Assert.assertEquals(1, vector.getShort(1));
+      vector.close();
+
+      Platform.putInt(null, address, 0xFFFFFFFF);
+      vector = new OnHeapColumnVector(1, DataTypes.LongType);
+      TileDBColumnCopier.valueCopier(Datatype.TILEDB_UINT32, false).copy(address, vector, 1);
+      Assert.assertEquals(4294967295L, vector.getLong(0));
+      vector.close();
+    } finally {
+      Platform.freeMemory(address);
+    }
+  }
+
+  @Test(expected = TileDBError.class)
+  public void testScalarStringNotSupported() throws Exception {
+    TileDBColumnCopier.valueCopier(Datatype.TILEDB_STRING_UTF8, false);
+  }
+}
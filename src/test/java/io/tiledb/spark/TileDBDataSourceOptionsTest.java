@@ -174,6 +174,121 @@ public class TileDBDataSourceOptionsTest {
     Assert.assertEquals("true", tiledbOptions.get("sm.dedup_coords"));
   }
 
+  @Test
+  public void testReadMemoryBudgetOptions() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertFalse(options.hasReadBufferSize());
+    Assert.assertEquals(64L * 1024 * 1024, options.getReadMemoryBudget());
+
+    optionMap.put("read_buffer_size", "1024");
+    optionMap.put("read_memory_budget", "4096");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertTrue(options.hasReadBufferSize());
+    Assert.assertEquals(1024L, options.getReadBufferSizes());
+    Assert.assertEquals(4096L, options.getReadMemoryBudget());
+  }
+
+  @Test
+  public void testPartitionPlannerOptions() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals("volume", options.getPartitionPlanner());
+
+    optionMap.put("partition_planner", "Fragments");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals("fragments", options.getPartitionPlanner());
+
+    optionMap.put("partition_planner", "sampling");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals("sampling", options.getPartitionPlanner());
+  }
+
+  @Test
+  public void testReadLimitOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertFalse(options.getReadLimit().isPresent());
+
+    optionMap.put("limit", "20");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals(Long.valueOf(20), options.getReadLimit().get());
+  }
+
+  @Test
+  public void testReadParallelColumnsOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertFalse(options.getReadParallelColumns());
+
+    optionMap.put("read_parallel_columns", "true");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertTrue(options.getReadParallelColumns());
+  }
+
+  @Test
+  public void testReadLazyColumnsOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertFalse(options.getReadLazyColumns());
+
+    optionMap.put("read_lazy_columns", "true");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertTrue(options.getReadLazyColumns());
+  }
+
+  @Test
+  public void testLateMaterializationOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertFalse(options.getLateMaterialization());
+
+    optionMap.put("late_materialization", "true");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertTrue(options.getLateMaterialization());
+  }
+
+  @Test
+  public void testMetadataCacheTtlOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    TileDBDataSourceOptions options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals(0L, options.getMetadataCacheTtl());
+
+    optionMap.put("metadata_cache_ttl", "5000");
+    options = new TileDBDataSourceOptions(new DataSourceOptions(optionMap));
+    Assert.assertEquals(5000L, options.getMetadataCacheTtl());
+  }
+
+  @Test
+  public void testWithoutReadModes() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    optionMap.put("uri", "file:///tmp/array");
+    optionMap.put("read_async_submit", "true");
+    optionMap.put("read_lazy_columns", "true");
+    optionMap.put("read_parallel_columns", "true");
+    optionMap.put("late_materialization", "true");
+    optionMap.put("limit", "20");
+    optionMap.put("tiledb.vfs.num_threads", "4");
+    TileDBDataSourceOptions options =
+        new TileDBDataSourceOptions(new DataSourceOptions(optionMap)).withoutReadModes();
+
+    Assert.assertFalse(options.getReadAsyncSubmit());
+    Assert.assertFalse(options.getReadLazyColumns());
+    Assert.assertFalse(options.getReadParallelColumns());
+    Assert.assertFalse(options.getLateMaterialization());
+    Assert.assertFalse(options.getReadLimit().isPresent());
+    // the array and TileDB config are kept
+    Assert.assertEquals(new URI("file:///tmp/array"), options.getArrayURI().get());
+    Assert.assertEquals("4", options.getTileDBConfigMap().get("vfs.num_threads"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPartitionPlannerOption() throws Exception {
+    HashMap<String, String> optionMap = new HashMap<>();
+    optionMap.put("partition_planner", "unknown");
+    new TileDBDataSourceOptions(new DataSourceOptions(optionMap)).getPartitionPlanner();
+  }
+
   @Test
   public void testSingleFilter() throws Exception {
     String filters = "(gzip, 2)";
@@ -9,10 +9,15 @@ import io.tiledb.java.api.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SaveMode;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -155,6 +160,70 @@ public class TileDBDataSourceReadTest extends SharedJavaSparkSession {
     return;
   }
 
+  @Test
+  public void testQuickStartSparseAttributeFilter() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    // the attribute is filtered in the scan but not projected
+    List<Row> rows =
+        session()
+            .sql("SELECT rows, cols FROM tmp WHERE a > 1 AND a IN (2, 3, 4) ORDER BY cols")
+            .collectAsList();
+    Assert.assertEquals(2, rows.size());
+    // A[2, 3] == 3
+    Assert.assertEquals(2, rows.get(0).getInt(0));
+    Assert.assertEquals(3, rows.get(0).getInt(1));
+    // A[2, 4] == 2
+    Assert.assertEquals(2, rows.get(1).getInt(0));
+    Assert.assertEquals(4, rows.get(1).getInt(1));
+
+    rows = session().sql("SELECT COUNT(*) FROM tmp WHERE NOT(a = 3) OR a < 0").collectAsList();
+    Assert.assertEquals(2, rows.get(0).getLong(0));
+    return;
+  }
+
+  @Test
+  public void testQuickStartSparseCount() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .load();
+    // no column is projected, only the cells are counted
+    Assert.assertEquals(3, dfRead.count());
+    dfRead.createOrReplaceTempView("tmp");
+    List<Row> rows = session().sql("SELECT COUNT(*) FROM tmp WHERE rows = 2").collectAsList();
+    Assert.assertEquals(2, rows.get(0).getLong(0));
+    return;
+  }
+
+  @Test
+  public void testQuickStartSparseStatistics() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .load();
+    // a small array is reported as small so it can be broadcast in joins
+    long sizeInBytes = dfRead.queryExecution().optimizedPlan().stats().sizeInBytes().longValue();
+    Assert.assertTrue(sizeInBytes > 0);
+    Assert.assertTrue(sizeInBytes < session().sessionState().conf().autoBroadcastJoinThreshold());
+
+    // one cell with rows = 1 and two with rows = 2 give 1 + 2 * 2 join matches
+    dfRead.createOrReplaceTempView("tmp");
+    List<Row> rows =
+        session().sql("SELECT x.a FROM tmp x JOIN tmp y ON x.rows = y.rows").collectAsList();
+    Assert.assertEquals(5, rows.size());
+    return;
+  }
+
   @Test
   public void testQuickStartDenseRowMajor() throws TileDBError {
     denseArrayCreate();
@@ -188,6 +257,38 @@ public class TileDBDataSourceReadTest extends SharedJavaSparkSession {
     }
   }
 
+  @Test
+  public void testQuickStartDenseColMajorSubarray() throws TileDBError {
+    denseArrayCreate();
+    denseArrayWrite();
+
+    // the coordinates are computed from the subarray across several small batches
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", DENSE_ARRAY_URI)
+            .option("order", "col-major")
+            .option("partition_count", 1)
+            .option("read_buffer_size", 8)
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    List<Row> rows =
+        dfRead
+            .sqlContext()
+            .sql("SELECT rows, cols, vals FROM tmp WHERE rows >= 2 AND rows <= 3")
+            .collectAsList();
+    int[] expectedRows = new int[] {2, 3, 2, 3};
+    int[] expectedCols = new int[] {1, 1, 2, 2};
+    int[] expectedVals = new int[] {5, 2, 7, 4};
+    Assert.assertEquals(expectedRows.length, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Assert.assertEquals(expectedRows[i], rows.get(i).getInt(0));
+      Assert.assertEquals(expectedCols[i], rows.get(i).getInt(1));
+      Assert.assertEquals(expectedVals[i], rows.get(i).getInt(2));
+    }
+  }
+
   @Test
   public void testHeterogeneousSparse1() throws TileDBError {
     List<Dimension> dimensions = new ArrayList<>();
@@ -234,6 +335,49 @@ public class TileDBDataSourceReadTest extends SharedJavaSparkSession {
     }
   }
 
+  @Test
+  public void testHeterogeneousSparseArrowBatches() throws TileDBError {
+    List<Dimension> dimensions = new ArrayList<>();
+    dimensions.add(new Dimension(ctx, "d1", Datatype.TILEDB_STRING_ASCII, null, null));
+    dimensions.add(new Dimension(ctx, "d2", Datatype.TILEDB_INT32, new Pair(0, 100), 2));
+
+    NativeArray d1_data =
+        new NativeArray(ctx, "object1object2object3", Datatype.TILEDB_STRING_ASCII);
+    NativeArray d1_off = new NativeArray(ctx, new long[] {0, 7, 14}, Datatype.TILEDB_UINT64);
+    NativeArray d2_data = new NativeArray(ctx, new int[] {12, 40, 50}, Datatype.TILEDB_INT32);
+    NativeArray a1_data = new NativeArray(ctx, new int[] {10, 23, 30}, Datatype.TILEDB_INT32);
+
+    List<Pair<String, Pair<NativeArray, NativeArray>>> data = new ArrayList<>();
+    data.add(new Pair<>("d1", new Pair<>(d1_data, d1_off)));
+    data.add(new Pair<>("d2", new Pair<>(d2_data, null)));
+    data.add(new Pair<>("a1", new Pair<>(a1_data, null)));
+
+    sparseHeterogeneousArrayCreate(dimensions);
+    sparseHeterogeneousArrayWrite(data);
+
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", SPARSE_ARRAY_URI)
+            .option("order", "row-major")
+            .option("partition_count", 1)
+            .option("read_arrow_batches", true)
+            .load();
+    List<Row> rows = dfRead.collectAsList();
+
+    String[] d1 = new String[] {"object1", "object2", "object3"};
+    int[] d2 = new int[] {12, 40, 50};
+    int[] a1 = new int[] {10, 23, 30};
+    Assert.assertEquals(d1.length, rows.size());
+
+    for (int i = 0; i < rows.size(); i++) {
+      Assert.assertEquals(d1[i], rows.get(i).getString(0));
+      Assert.assertEquals(d2[i], rows.get(i).getInt(1));
+      Assert.assertEquals(a1[i], rows.get(i).getInt(2));
+    }
+  }
+
   @Test
   public void testHeterogeneousSparse2() throws TileDBError {
     List<Dimension> dimensions = new ArrayList<>();
@@ -286,4 +430,118 @@ public class TileDBDataSourceReadTest extends SharedJavaSparkSession {
       }
     }
   }
+
+  @Test
+  public void testLateMaterializationSparse() {
+    List<Row> data = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      data.add(RowFactory.create((long) i, i % 10, "value" + i));
+    }
+    StructType schema =
+        new StructType()
+            .add("id", DataTypes.LongType, false)
+            .add("a1", DataTypes.IntegerType, false)
+            .add("a2", DataTypes.StringType, false);
+    session()
+        .createDataFrame(data, schema)
+        .write()
+        .format("io.tiledb.spark")
+        .option("uri", SPARSE_ARRAY_URI)
+        .option("schema.dim.0.name", "id")
+        .mode(SaveMode.ErrorIfExists)
+        .save();
+
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", SPARSE_ARRAY_URI)
+            .option("partition_count", 1)
+            .option("late_materialization", true)
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    // a2 is only read around the cells where a1 matches
+    List<Row> rows =
+        session().sql("SELECT id, a2 FROM tmp WHERE a1 = 3 ORDER BY id").collectAsList();
+    Assert.assertEquals(10, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Assert.assertEquals(10 * i + 3, rows.get(i).getLong(0));
+      Assert.assertEquals("value" + (10 * i + 3), rows.get(i).getString(1));
+    }
+
+    // no cell matches
+    rows = session().sql("SELECT a2 FROM tmp WHERE a1 > 10").collectAsList();
+    Assert.assertEquals(0, rows.size());
+  }
+
+  private void writeMultiAttributeArray() {
+    List<Row> data = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      data.add(RowFactory.create((long) i, i % 10, "value" + i, i * 0.5, new Timestamp(i * 1000L)));
+    }
+    StructType schema =
+        new StructType()
+            .add("id", DataTypes.LongType, false)
+            .add("a1", DataTypes.IntegerType, false)
+            .add("a2", DataTypes.StringType, false)
+            .add("a3", DataTypes.DoubleType, false)
+            .add("a4", DataTypes.TimestampType, false);
+    session()
+        .createDataFrame(data, schema)
+        .write()
+        .format("io.tiledb.spark")
+        .option("uri", SPARSE_ARRAY_URI)
+        .option("schema.dim.0.name", "id")
+        .mode(SaveMode.ErrorIfExists)
+        .save();
+  }
+
+  /**
+   * Read the multi-attribute array with a read mode option and small buffers, so the results are
+   * returned in several batches, and compare with the default read
+   *
+   * @param option boolean read option enabling the read mode
+   */
+  private void assertReadModeResults(String option) {
+    writeMultiAttributeArray();
+    session()
+        .read()
+        .format("io.tiledb.spark")
+        .option("uri", SPARSE_ARRAY_URI)
+        .load()
+        .createOrReplaceTempView("expected");
+    session()
+        .read()
+        .format("io.tiledb.spark")
+        .option("uri", SPARSE_ARRAY_URI)
+        .option("read_buffer_size", 4096)
+        .option(option, true)
+        .load()
+        .createOrReplaceTempView("actual");
+
+    String[] queries =
+        new String[] {
+          "SELECT * FROM %s ORDER BY id",
+          // the filtered columns are not projected
+          "SELECT id, a2 FROM %s WHERE a1 = 3 ORDER BY id",
+          "SELECT a2, a4 FROM %s WHERE a1 < 2 AND a3 > 100 ORDER BY id",
+          "SELECT id FROM %s WHERE a2 = 'value42'"
+        };
+    for (String query : queries) {
+      List<Row> expected = session().sql(String.format(query, "expected")).collectAsList();
+      List<Row> actual = session().sql(String.format(query, "actual")).collectAsList();
+      Assert.assertFalse(expected.isEmpty());
+      Assert.assertEquals(query, expected, actual);
+    }
+  }
+
+  @Test
+  public void testParallelColumns() {
+    assertReadModeResults("read_parallel_columns");
+  }
+
+  @Test
+  public void testLazyColumns() {
+    assertReadModeResults("read_lazy_columns");
+  }
 }
@@ -50,6 +50,31 @@ public class TileDBDataSourceReadTestBufferSizes extends SharedJavaSparkSession
     return;
   }
 
+  /**
+   * Same as the 8 byte buffer test with background submissions, every batch holds a single cell so
+   * each incomplete submission is overlapped with the consumption of the previous batch
+   */
+  @Test
+  public void testQuickStartSparseWith8ByteBufferAsyncSubmit() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .option("read_buffer_size", 8)
+            .option("read_async_submit", true)
+            .load();
+    List<Row> rows = dfRead.collectAsList();
+    Assert.assertEquals(3, rows.size());
+    int[][] expected = new int[][] {{1, 1, 1}, {2, 3, 3}, {2, 4, 2}};
+    for (int i = 0; i < expected.length; i++) {
+      Row row = rows.get(i);
+      Assert.assertEquals(expected[i][0], row.getInt(0));
+      Assert.assertEquals(expected[i][1], row.getInt(1));
+      Assert.assertEquals(expected[i][2], row.getInt(2));
+    }
+  }
+
   /**
    * This test uses an 4 byte buffer which is too small to hold any results, buffer reallocation is
    * disabled so we should get an exception The test is currently disabled because catching the
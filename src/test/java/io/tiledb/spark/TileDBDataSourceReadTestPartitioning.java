@@ -71,6 +71,97 @@ public class TileDBDataSourceReadTestPartitioning extends SharedJavaSparkSession
     return;
   }
 
+  @Test
+  public void testQuickStartSparseLargePartitioningGroupByDimension() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("partition_count", 11)
+            .option("uri", testArrayURIString("sparse_large_dimension_1_4000"))
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    Dataset<Row> grouped = session().sql("SELECT rows, COUNT(*) FROM tmp GROUP BY rows");
+    // partitions are disjoint ranges of rows, the aggregation does not shuffle
+    String plan = grouped.queryExecution().executedPlan().toString();
+    Assert.assertFalse(plan, plan.contains("Exchange"));
+    List<Row> rows = grouped.collectAsList();
+    Assert.assertEquals(7, rows.size());
+    long total = 0;
+    for (Row row : rows) {
+      total += row.getLong(1);
+    }
+    Assert.assertEquals(8, total);
+    return;
+  }
+
+  @Test
+  public void testQuickStartSparseLargeFragmentPartitioning() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("partition_count", 4)
+            .option("partition_planner", "fragments")
+            .option("uri", testArrayURIString("sparse_large_dimension_1_4000"))
+            .load();
+    Assert.assertTrue(dfRead.rdd().getNumPartitions() <= 5);
+    dfRead.createOrReplaceTempView("tmp");
+    List<Row> rows = session().sql("SELECT * FROM tmp ORDER BY rows, cols").collectAsList();
+    Assert.assertEquals(8, rows.size());
+    Assert.assertEquals(1, rows.get(0).getInt(0));
+    Assert.assertEquals(3500, rows.get(7).getInt(0));
+    return;
+  }
+
+  @Test
+  public void testQuickStartSparseLargeSamplingPartitioning() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("partition_count", 4)
+            .option("partition_planner", "sampling")
+            .option("uri", testArrayURIString("sparse_large_dimension_1_4000"))
+            .load();
+    Assert.assertTrue(dfRead.rdd().getNumPartitions() <= 5);
+    dfRead.createOrReplaceTempView("tmp");
+    List<Row> rows = session().sql("SELECT * FROM tmp ORDER BY rows, cols").collectAsList();
+    Assert.assertEquals(8, rows.size());
+    Assert.assertEquals(1, rows.get(0).getInt(0));
+    Assert.assertEquals(3500, rows.get(7).getInt(0));
+    return;
+  }
+
+  @Test
+  public void testQuickStartSparseLargePackedInList() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("partition_count", 4)
+            .option("uri", testArrayURIString("sparse_large_dimension_1_4000"))
+            .load();
+    dfRead.createOrReplaceTempView("tmp");
+    StringBuilder values = new StringBuilder("1, 2, 100, 110");
+    // values without cells, each a separate range
+    for (int i = 3901; i < 4000; i += 2) {
+      values.append(", ").append(i);
+    }
+    Dataset<Row> dfFiltered =
+        session().sql("SELECT * FROM tmp WHERE rows IN (" + values + ") ORDER BY rows, cols");
+    // the ranges are packed into multi-range partitions rather than one partition each
+    Assert.assertTrue(dfRead.filter("rows IN (" + values + ")").rdd().getNumPartitions() <= 4);
+    List<Row> rows = dfFiltered.collectAsList();
+    Assert.assertEquals(5, rows.size());
+    Assert.assertEquals(1, rows.get(0).getInt(0));
+    Assert.assertEquals(2, rows.get(1).getInt(0));
+    Assert.assertEquals(2, rows.get(2).getInt(0));
+    Assert.assertEquals(100, rows.get(3).getInt(0));
+    Assert.assertEquals(110, rows.get(4).getInt(0));
+    return;
+  }
+
   @Test
   /** */
   public void testQuickStartSparseLargePartitioningMultipleRanges() {
@@ -0,0 +1,61 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Datatype;
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.Platform;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBDatetimeTest {
+
+  @Test
+  public void testSparkTypes() {
+    Assert.assertEquals(DataTypes.DateType, TileDBDatetime.sparkType(Datatype.TILEDB_DATETIME_DAY));
+    Assert.assertEquals(
+        DataTypes.DateType, TileDBDatetime.sparkType(Datatype.TILEDB_DATETIME_WEEK));
+    Assert.assertEquals(
+        DataTypes.TimestampType, TileDBDatetime.sparkType(Datatype.TILEDB_DATETIME_NS));
+    Assert.assertFalse(TileDBDatetime.isSupported(Datatype.TILEDB_DATETIME_YEAR));
+    Assert.assertFalse(TileDBDatetime.isSupported(Datatype.TILEDB_INT64));
+  }
+
+  @Test
+  public void testRescale() {
+    Assert.assertEquals(14, TileDBDatetime.toSpark(2, Datatype.TILEDB_DATETIME_WEEK));
+    Assert.assertEquals(3_000_000L, TileDBDatetime.toSpark(3, Datatype.TILEDB_DATETIME_SEC));
+    Assert.assertEquals(1_500L, TileDBDatetime.toSpark(1_500_999L, Datatype.TILEDB_DATETIME_NS));
+    // values before the epoch round down
+    Assert.assertEquals(-2, TileDBDatetime.toSpark(-1_001L, Datatype.TILEDB_DATETIME_NS));
+    Assert.assertEquals(-1, TileDBDatetime.fromSpark(-1L, Datatype.TILEDB_DATETIME_MS));
+    Assert.assertEquals(123L, TileDBDatetime.fromSpark(123_456L, Datatype.TILEDB_DATETIME_MS));
+    Assert.assertEquals(
+        TileDBDatetime.fromSpark(
+            TileDBDatetime.toSpark(42, Datatype.TILEDB_DATETIME_HR), Datatype.TILEDB_DATETIME_HR),
+        42);
+  }
+
+  @Test
+  public void testCopyToVector() {
+    long src = Platform.allocateMemory(3 * 8);
+    try {
+      for (int i = 0; i < 3; i++) {
+        Platform.putLong(null, src + 8L * i, i - 1);
+      }
+      OnHeapColumnVector dates = new OnHeapColumnVector(3, DataTypes.DateType);
+      TileDBDatetime.copyToVector(Datatype.TILEDB_DATETIME_DAY, src, dates, 0, 3);
+      Assert.assertEquals(-1, dates.getInt(0));
+      Assert.assertEquals(1, dates.getInt(2));
+
+      OnHeapColumnVector timestamps = new OnHeapColumnVector(3, DataTypes.TimestampType);
+      TileDBDatetime.copyToVector(Datatype.TILEDB_DATETIME_MS, src, timestamps, 0, 3);
+      Assert.assertEquals(-1000L, timestamps.getLong(0));
+      Assert.assertEquals(0L, timestamps.getLong(1));
+      Assert.assertEquals(1000L, timestamps.getLong(2));
+      dates.close();
+      timestamps.close();
+    } finally {
+      Platform.freeMemory(src);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package io.tiledb.spark;
+
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.vectorized.ColumnarArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBFixedArrayVectorTest {
+
+  @Test
+  public void testGetArray() {
+    TileDBFixedArrayVector vector =
+        new TileDBFixedArrayVector(DataTypes.createArrayType(DataTypes.FloatType), 3, 2);
+    vector.getValues().putFloats(0, 6, new float[] {1f, 2f, 3f, 4f, 5f, 6f}, 0);
+
+    for (int row = 0; row < 3; row++) {
+      ColumnarArray array = vector.getArray(row);
+      Assert.assertEquals(2, array.numElements());
+      Assert.assertEquals(2 * row + 1f, array.getFloat(0), 0);
+      Assert.assertEquals(2 * row + 2f, array.getFloat(1), 0);
+    }
+    Assert.assertArrayEquals(new float[] {5f, 6f}, vector.getArray(2).toFloatArray(), 0);
+    Assert.assertFalse(vector.isNullAt(1));
+    vector.close();
+  }
+}
@@ -0,0 +1,61 @@
+package io.tiledb.spark;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBLateMaterializationTest {
+
+  @Test
+  public void testCoalesce() {
+    long[] values = new long[] {9, 1, 2, 3, 20, 2, 40, 41};
+    List<long[]> ranges = TileDBLateMaterialization.coalesce(values, values.length, 10);
+    Assert.assertEquals(4, ranges.size());
+    Assert.assertArrayEquals(new long[] {1, 3}, ranges.get(0));
+    Assert.assertArrayEquals(new long[] {9, 9}, ranges.get(1));
+    Assert.assertArrayEquals(new long[] {20, 20}, ranges.get(2));
+    Assert.assertArrayEquals(new long[] {40, 41}, ranges.get(3));
+  }
+
+  @Test
+  public void testCoalesceMaxRanges() {
+    long[] values = new long[] {1, 2, 3, 9, 20, 40, 41};
+    // the smallest gaps are closed first
+    List<long[]> ranges = TileDBLateMaterialization.coalesce(values, values.length, 2);
+    Assert.assertEquals(2, ranges.size());
+    Assert.assertArrayEquals(new long[] {1, 20}, ranges.get(0));
+    Assert.assertArrayEquals(new long[] {40, 41}, ranges.get(1));
+
+    ranges = TileDBLateMaterialization.coalesce(values, values.length, 1);
+    Assert.assertEquals(1, ranges.size());
+    Assert.assertArrayEquals(new long[] {1, 41}, ranges.get(0));
+  }
+
+  @Test
+  public void testIntersect() {
+    List<long[]> ranges =
+        TileDBLateMaterialization.intersect(
+            Arrays.asList(new long[] {5, 105}, new long[] {200, 210}),
+            Arrays.asList(new long[] {1, 10}, new long[] {100, 110}));
+    Assert.assertEquals(2, ranges.size());
+    Assert.assertArrayEquals(new long[] {5, 10}, ranges.get(0));
+    Assert.assertArrayEquals(new long[] {100, 105}, ranges.get(1));
+  }
+
+  @Test
+  public void testToSubarrays() {
+    List<List<Range>> subarrays =
+        TileDBLateMaterialization.toSubarrays(
+            Arrays.asList(
+                Arrays.asList(
+                    TileDBLateMaterialization.toRange(new long[] {1, 3}, Integer.class),
+                    TileDBLateMaterialization.toRange(new long[] {7, 8}, Integer.class)),
+                Arrays.asList(TileDBLateMaterialization.toRange(new long[] {2, 2}, Long.class))));
+    Assert.assertEquals(2, subarrays.size());
+    Assert.assertEquals(7, subarrays.get(1).get(0).getFirst());
+    // the single range of the second dimension is shared by both subarrays
+    Assert.assertEquals(2L, subarrays.get(0).get(1).getFirst());
+    Assert.assertEquals(2L, subarrays.get(1).get(1).getFirst());
+  }
+}
@@ -0,0 +1,53 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.TileDBError;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.spark.sql.execution.vectorized.OnHeapColumnVector;
+import org.apache.spark.sql.types.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBLazyColumnVectorTest {
+
+  @Test
+  public void testLoadOnFirstAccess() {
+    OnHeapColumnVector values = new OnHeapColumnVector(4, DataTypes.IntegerType);
+    TileDBLazyColumnVector vector = new TileDBLazyColumnVector(values);
+    AtomicInteger loads = new AtomicInteger();
+
+    vector.setLoader(
+        () -> {
+          loads.incrementAndGet();
+          values.putInts(0, 2, new int[] {1, 2}, 0);
+        });
+    // untouched batches are not copied
+    Assert.assertFalse(vector.isLoaded());
+    Assert.assertEquals(0, loads.get());
+
+    Assert.assertEquals(1, vector.getInt(0));
+    Assert.assertEquals(2, vector.getInt(1));
+    Assert.assertTrue(vector.isLoaded());
+    Assert.assertEquals(1, loads.get());
+
+    // a new batch is copied again on its first access
+    vector.setLoader(
+        () -> {
+          loads.incrementAndGet();
+          values.putInts(0, 2, new int[] {3, 4}, 0);
+        });
+    Assert.assertEquals(4, vector.getInt(1));
+    Assert.assertEquals(2, loads.get());
+    values.close();
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testLoadError() {
+    OnHeapColumnVector values = new OnHeapColumnVector(4, DataTypes.IntegerType);
+    TileDBLazyColumnVector vector = new TileDBLazyColumnVector(values);
+    vector.setLoader(
+        () -> {
+          throw new TileDBError("load failed");
+        });
+    vector.getInt(0);
+  }
+}
@@ -0,0 +1,91 @@
+package io.tiledb.spark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.apache.spark.sql.catalyst.rules.Rule;
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.collection.JavaConverters;
+
+public class TileDBLimitPushdownTest extends SharedJavaSparkSession {
+
+  private String testArrayURIString(String arrayName) {
+    Path arraysPath = Paths.get("src", "test", "resources", "data", "1.6", arrayName);
+    return "file://".concat(arraysPath.toAbsolutePath().toString());
+  }
+
+  @Before
+  public void enablePushdown() {
+    List<Rule<LogicalPlan>> rules = Collections.singletonList(new TileDBLimitPushdownRule());
+    session()
+        .experimental()
+        .extraOptimizations_$eq(JavaConverters.asScalaBufferConverter(rules).asScala().toSeq());
+  }
+
+  @After
+  public void disablePushdown() {
+    session()
+        .experimental()
+        .extraOptimizations_$eq(
+            JavaConverters.asScalaBufferConverter(new ArrayList<Rule<LogicalPlan>>())
+                .asScala()
+                .toSeq());
+  }
+
+  private boolean isPushedDown(Dataset<Row> df) {
+    for (LogicalPlan leaf :
+        JavaConverters.seqAsJavaList(df.queryExecution().optimizedPlan().collectLeaves())) {
+      if (leaf instanceof DataSourceV2Relation
+          && ((DataSourceV2Relation) leaf)
+              .options()
+              .contains(TileDBLimitPushdownRule.LIMIT_OPTION)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testQuickStartSparseLargeLimit() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("partition_count", 4)
+            .option("uri", testArrayURIString("sparse_large_dimension_1_4000"))
+            .load();
+    Dataset<Row> limited = dfRead.limit(3);
+    Assert.assertTrue(isPushedDown(limited));
+    Assert.assertEquals(3, limited.collectAsList().size());
+
+    // the limit applies to the filtered rows
+    dfRead.createOrReplaceTempView("tmp");
+    Dataset<Row> filtered = session().sql("SELECT rows FROM tmp WHERE rows >= 100 LIMIT 2");
+    Assert.assertTrue(isPushedDown(filtered));
+    List<Row> rows = filtered.collectAsList();
+    Assert.assertEquals(2, rows.size());
+    Assert.assertTrue(rows.get(0).getInt(0) >= 100);
+    Assert.assertTrue(rows.get(1).getInt(0) >= 100);
+  }
+
+  @Test
+  public void testQuickStartSparseLimitLargerThanArray() {
+    Dataset<Row> dfRead =
+        session()
+            .read()
+            .format("io.tiledb.spark")
+            .option("uri", testArrayURIString("quickstart_sparse_array"))
+            .load();
+    List<Row> rows = dfRead.limit(100).collectAsList();
+    Assert.assertEquals(3, rows.size());
+  }
+}
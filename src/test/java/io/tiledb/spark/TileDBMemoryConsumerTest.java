@@ -0,0 +1,63 @@
+package io.tiledb.spark;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.memory.TaskMemoryManager;
+import org.apache.spark.memory.UnifiedMemoryManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBMemoryConsumerTest {
+
+  private TaskMemoryManager taskMemoryManager(long maxMemory) {
+    UnifiedMemoryManager memoryManager =
+        new UnifiedMemoryManager(new SparkConf(), maxMemory, maxMemory / 2, 1);
+    return new TaskMemoryManager(memoryManager, 0);
+  }
+
+  @Test
+  public void testTryAcquire() {
+    TileDBMemoryConsumer consumer = new TileDBMemoryConsumer(taskMemoryManager(1000), null);
+    Assert.assertTrue(consumer.tryAcquire(600));
+    Assert.assertEquals(600, consumer.getHeldBytes());
+
+    // a denied request holds nothing
+    Assert.assertFalse(consumer.tryAcquire(600));
+    Assert.assertEquals(600, consumer.getHeldBytes());
+
+    consumer.releaseAll();
+    Assert.assertEquals(0, consumer.getHeldBytes());
+    Assert.assertTrue(consumer.tryAcquire(1000));
+  }
+
+  @Test
+  public void testSpillRequest() {
+    TaskMemoryManager taskMemoryManager = taskMemoryManager(1000);
+    boolean[] spillRequested = new boolean[1];
+    TileDBMemoryConsumer consumer =
+        new TileDBMemoryConsumer(
+            taskMemoryManager,
+            () -> {
+              spillRequested[0] = true;
+              return false;
+            });
+    Assert.assertTrue(consumer.tryAcquire(800));
+
+    // buffers in use are kept when another consumer of the task runs out of memory
+    TileDBMemoryConsumer other = new TileDBMemoryConsumer(taskMemoryManager, null);
+    Assert.assertFalse(other.tryAcquire(800));
+    Assert.assertTrue(spillRequested[0]);
+    Assert.assertEquals(800, consumer.getHeldBytes());
+  }
+
+  @Test
+  public void testSpillRelease() {
+    TaskMemoryManager taskMemoryManager = taskMemoryManager(1000);
+    TileDBMemoryConsumer consumer = new TileDBMemoryConsumer(taskMemoryManager, () -> true);
+    Assert.assertTrue(consumer.tryAcquire(800));
+
+    // released buffers give their memory to the consumer asking for it
+    TileDBMemoryConsumer other = new TileDBMemoryConsumer(taskMemoryManager, null);
+    Assert.assertTrue(other.tryAcquire(800));
+    Assert.assertEquals(0, consumer.getHeldBytes());
+  }
+}
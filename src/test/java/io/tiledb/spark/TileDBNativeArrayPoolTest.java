@@ -0,0 +1,22 @@
+package io.tiledb.spark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBNativeArrayPoolTest {
+
+  @Test
+  public void testSizeClass() {
+    Assert.assertEquals(1, TileDBNativeArrayPool.sizeClass(0));
+    Assert.assertEquals(1, TileDBNativeArrayPool.sizeClass(1));
+    Assert.assertEquals(4, TileDBNativeArrayPool.sizeClass(3));
+    Assert.assertEquals(4, TileDBNativeArrayPool.sizeClass(4));
+    Assert.assertEquals(8, TileDBNativeArrayPool.sizeClass(5));
+    Assert.assertEquals(16L * 1024 * 1024, TileDBNativeArrayPool.sizeClass(10L * 1024 * 1024));
+    Assert.assertEquals(16L * 1024 * 1024, TileDBNativeArrayPool.sizeClass(16L * 1024 * 1024));
+    // large buffers are rounded to a multiple of 1mb, not doubled
+    Assert.assertEquals(17L * 1024 * 1024, TileDBNativeArrayPool.sizeClass(16L * 1024 * 1024 + 1));
+    Assert.assertEquals(300L * 1024 * 1024, TileDBNativeArrayPool.sizeClass(300L * 1024 * 1024));
+    Assert.assertEquals((1L << 32) + (1L << 20), TileDBNativeArrayPool.sizeClass((1L << 32) + 1));
+  }
+}
@@ -0,0 +1,35 @@
+package io.tiledb.spark;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.Platform;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBNativeStringVectorTest {
+
+  @Test
+  public void testGetUTF8String() {
+    byte[] data = "objectaab\u20ac".getBytes(StandardCharsets.UTF_8);
+    long[] offsets = new long[] {0, 6, 6, 8};
+    long dataAddress = Platform.allocateMemory(data.length);
+    long offsetsAddress = Platform.allocateMemory(8L * offsets.length);
+    try {
+      Platform.copyMemory(data, Platform.BYTE_ARRAY_OFFSET, null, dataAddress, data.length);
+      Platform.copyMemory(
+          offsets, Platform.LONG_ARRAY_OFFSET, null, offsetsAddress, 8L * offsets.length);
+      TileDBNativeStringVector vector = new TileDBNativeStringVector(DataTypes.StringType);
+      vector.setAddresses(offsetsAddress, dataAddress, offsets.length, data.length);
+      Assert.assertEquals("object", vector.getUTF8String(0).toString());
+      Assert.assertEquals("", vector.getUTF8String(1).toString());
+      Assert.assertEquals("aa", vector.getUTF8String(2).toString());
+      // the last string ends at the number of bytes returned
+      Assert.assertEquals("b\u20ac", vector.getUTF8String(3).toString());
+      Assert.assertArrayEquals("aa".getBytes(StandardCharsets.UTF_8), vector.getBinary(2));
+      vector.close();
+    } finally {
+      Platform.freeMemory(dataAddress);
+      Platform.freeMemory(offsetsAddress);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Pair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBPartitionPlannerTest {
+
+  private SubArrayRanges subarray(int start, int end) {
+    List<Range> ranges = new ArrayList<>();
+    ranges.add(new Range(new Pair<>(start, end)));
+    ranges.add(new Range(new Pair<>(1, 10)));
+    return new SubArrayRanges(ranges, Integer.class);
+  }
+
+  private void assertRange(SubArrayRanges subarray, int start, int end) {
+    Assert.assertEquals(start, subarray.getRanges().get(0).getFirst());
+    Assert.assertEquals(end, subarray.getRanges().get(0).getSecond());
+    // the other dimensions are not split
+    Assert.assertEquals(1, subarray.getRanges().get(1).getFirst());
+    Assert.assertEquals(10, subarray.getRanges().get(1).getSecond());
+  }
+
+  @Test
+  public void testSplitByCells() throws Exception {
+    List<SubArrayRanges> subarrays = Arrays.asList(subarray(1, 100), subarray(200, 300));
+    List<List<TileDBPartitionPlanner.WeightedInterval>> intervals =
+        Arrays.asList(
+            Arrays.asList(
+                TileDBPartitionPlanner.WeightedInterval.ofCells(1, 10, 10),
+                TileDBPartitionPlanner.WeightedInterval.ofCells(91, 100, 30)),
+            Collections.emptyList());
+
+    List<SubArrayRanges> partitions = TileDBPartitionPlanner.split(subarrays, intervals, 4);
+    // the empty region of the first subarray and the empty second subarray are dropped
+    Assert.assertEquals(4, partitions.size());
+    assertRange(partitions.get(0), 1, 10);
+    assertRange(partitions.get(1), 91, 93);
+    assertRange(partitions.get(2), 94, 97);
+    assertRange(partitions.get(3), 98, 100);
+  }
+
+  private TileDBArrayMetadata metadata() {
+    List<Pair> domain = Arrays.asList(new Pair<>(1, 1000), new Pair<>(1, 20));
+    TileDBArrayMetadata.Fragment fragment =
+        new TileDBArrayMetadata.Fragment("fragment", true, 1L, 1L, 20000L, 100000L, domain);
+    return new TileDBArrayMetadata(
+        null,
+        Arrays.asList("rows", "cols"),
+        new ArrayList<>(),
+        new HashMap<>(),
+        Collections.singletonList(fragment),
+        1L);
+  }
+
+  @Test
+  public void testPartitionsForLimit() {
+    List<SubArrayRanges> subarrays = Collections.singletonList(subarray(1, 1000));
+    // 10000 estimated cells over half of the columns, 1000 per partition
+    Assert.assertEquals(
+        1, TileDBPartitionPlanner.partitionsForLimit(subarrays, metadata(), 100, 10));
+    Assert.assertEquals(
+        1, TileDBPartitionPlanner.partitionsForLimit(subarrays, metadata(), 1000, 10));
+    Assert.assertEquals(
+        10, TileDBPartitionPlanner.partitionsForLimit(subarrays, metadata(), 1001, 10));
+    Assert.assertEquals(
+        10, TileDBPartitionPlanner.partitionsForLimit(subarrays, metadata(), 50_000_000L, 10));
+  }
+
+  @Test
+  public void testPackSubarrays() {
+    List<SubArrayRanges> subarrays = new ArrayList<>();
+    for (int i = 100; i > 0; i--) {
+      subarrays.add(subarray(i * 2, i * 2));
+    }
+
+    List<List<SubArrayRanges>> partitions = TileDBPartitionPlanner.pack(subarrays, metadata(), 4);
+    Assert.assertEquals(4, partitions.size());
+    int packed = 0;
+    for (List<SubArrayRanges> partition : partitions) {
+      // subarrays of the same cost are spread evenly and read in coordinate order
+      Assert.assertEquals(25, partition.size());
+      for (int i = 1; i < partition.size(); i++) {
+        Assert.assertTrue(
+            (int) partition.get(i - 1).getRanges().get(0).getFirst()
+                < (int) partition.get(i).getRanges().get(0).getFirst());
+      }
+      packed += partition.size();
+    }
+    Assert.assertEquals(100, packed);
+  }
+
+  @Test
+  public void testPackOnlyMatchingSubarrays() {
+    List<SubArrayRanges> subarrays = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      for (int col : new int[] {1, 11}) {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new Range(new Pair<>(i, i)));
+        ranges.add(new Range(new Pair<>(col, col + 9)));
+        subarrays.add(new SubArrayRanges(ranges, Integer.class));
+      }
+    }
+
+    List<List<SubArrayRanges>> partitions = TileDBPartitionPlanner.pack(subarrays, metadata(), 2);
+    Assert.assertEquals(2, partitions.size());
+    for (List<SubArrayRanges> partition : partitions) {
+      // a multi-range query reads the cross product, so the other dimension has a single range
+      Assert.assertEquals(10, partition.size());
+      for (SubArrayRanges subarray : partition) {
+        Assert.assertEquals(partition.get(0).getRanges().get(1), subarray.getRanges().get(1));
+      }
+    }
+  }
+
+  @Test
+  public void testPackFewSubarrays() {
+    List<SubArrayRanges> subarrays = Arrays.asList(subarray(1, 10), subarray(20, 30));
+    List<List<SubArrayRanges>> partitions = TileDBPartitionPlanner.pack(subarrays, metadata(), 4);
+    Assert.assertEquals(2, partitions.size());
+    Assert.assertEquals(1, partitions.get(0).size());
+    Assert.assertEquals(1, partitions.get(1).size());
+  }
+
+  @Test
+  public void testSplitWithoutCells() throws Exception {
+    List<SubArrayRanges> subarrays = Collections.singletonList(subarray(1, 100));
+    List<List<TileDBPartitionPlanner.WeightedInterval>> intervals =
+        Collections.singletonList(Collections.emptyList());
+    Assert.assertTrue(TileDBPartitionPlanner.split(subarrays, intervals, 4).isEmpty());
+  }
+
+  @Test
+  public void testDisjointIntervals() {
+    List<TileDBPartitionPlanner.WeightedInterval> intervals =
+        TileDBPartitionPlanner.toDisjointIntervals(
+            Arrays.asList(
+                new TileDBPartitionPlanner.WeightedInterval(0, 10, 10),
+                new TileDBPartitionPlanner.WeightedInterval(5, 15, 20)),
+            false);
+    Assert.assertEquals(3, intervals.size());
+    Assert.assertEquals(5, intervals.get(0).cells, 1e-9);
+    Assert.assertEquals(15, intervals.get(1).cells, 1e-9);
+    Assert.assertEquals(10, intervals.get(2).cells, 1e-9);
+  }
+
+  @Test
+  public void testDisjointCells() {
+    List<TileDBPartitionPlanner.WeightedInterval> intervals =
+        TileDBPartitionPlanner.toDisjointIntervals(
+            Arrays.asList(
+                TileDBPartitionPlanner.WeightedInterval.ofCells(0, 9, 10),
+                TileDBPartitionPlanner.WeightedInterval.ofCells(5, 14, 20),
+                TileDBPartitionPlanner.WeightedInterval.ofCells(20, Long.MAX_VALUE, 1)),
+            true);
+    Assert.assertEquals(4, intervals.size());
+    Assert.assertEquals(4, intervals.get(0).last);
+    Assert.assertEquals(5, intervals.get(0).cells, 1e-9);
+    Assert.assertEquals(5, intervals.get(1).first);
+    Assert.assertEquals(15, intervals.get(1).cells, 1e-9);
+    Assert.assertEquals(14, intervals.get(2).last);
+    Assert.assertEquals(10, intervals.get(2).cells, 1e-9);
+    Assert.assertEquals(20, intervals.get(3).first);
+    Assert.assertEquals(Long.MAX_VALUE, intervals.get(3).last);
+  }
+
+  @Test
+  public void testSplitLargeIntegralCoordinates() throws Exception {
+    // nanosecond timestamps, not representable as doubles
+    long first = 1_700_000_000_000_000_001L;
+    long last = first + 999;
+    List<Pair> domain = Arrays.asList(new Pair<>(first, last), new Pair<>(1, 20));
+    TileDBArrayMetadata.Fragment fragment =
+        new TileDBArrayMetadata.Fragment("fragment", true, 1L, 1L, 20000L, 100000L, domain);
+    TileDBArrayMetadata metadata =
+        new TileDBArrayMetadata(
+            null,
+            Arrays.asList("time", "cols"),
+            new ArrayList<>(),
+            new HashMap<>(),
+            Collections.singletonList(fragment),
+            1L);
+    List<Range> ranges = new ArrayList<>();
+    ranges.add(new Range(new Pair<>(first - 10, last + 10)));
+    ranges.add(new Range(new Pair<>(1, 20)));
+    List<SubArrayRanges> subarrays =
+        Collections.singletonList(new SubArrayRanges(ranges, Long.class));
+
+    List<SubArrayRanges> partitions =
+        TileDBPartitionPlanner.planByFragments(subarrays, metadata, 4);
+    Assert.assertEquals(4, partitions.size());
+    // the partitions cover the non-empty domain exactly, without gaps
+    Assert.assertEquals(first, partitions.get(0).getRanges().get(0).getFirst());
+    for (int i = 1; i < partitions.size(); i++) {
+      Assert.assertEquals(
+          (long) partitions.get(i - 1).getRanges().get(0).getSecond() + 1,
+          partitions.get(i).getRanges().get(0).getFirst());
+    }
+    Assert.assertEquals(last, partitions.get(3).getRanges().get(0).getSecond());
+  }
+}
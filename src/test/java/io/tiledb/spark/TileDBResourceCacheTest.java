@@ -0,0 +1,52 @@
+package io.tiledb.spark;
+
+import io.tiledb.java.api.Array;
+import io.tiledb.java.api.Context;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TileDBResourceCacheTest {
+
+  private URI testArrayURI(String arrayName) {
+    Path arraysPath = Paths.get("src", "test", "resources", "data", "1.6", arrayName);
+    return URI.create("file://".concat(arraysPath.toAbsolutePath().toString()));
+  }
+
+  @Test
+  public void testContextSharedByConfig() throws Exception {
+    TileDBResourceCache cache = TileDBResourceCache.getInstance();
+    Map<String, String> config = new HashMap<>();
+    config.put("sm.tile_cache_size", "1000");
+    Map<String, String> otherConfig = new HashMap<>();
+    otherConfig.put("sm.tile_cache_size", "2000");
+
+    try (TileDBResourceCache.Lease<Context> ctx1 = cache.acquireContext(config);
+        TileDBResourceCache.Lease<Context> ctx2 = cache.acquireContext(new HashMap<>(config));
+        TileDBResourceCache.Lease<Context> ctx3 = cache.acquireContext(otherConfig)) {
+      Assert.assertSame(ctx1.get(), ctx2.get());
+      Assert.assertNotSame(ctx1.get(), ctx3.get());
+    }
+  }
+
+  @Test
+  public void testReadArraySharedByTimestamp() throws Exception {
+    TileDBResourceCache cache = TileDBResourceCache.getInstance();
+    Map<String, String> config = new HashMap<>();
+    URI uri = testArrayURI("quickstart_sparse_array");
+    long timestamp = System.currentTimeMillis();
+
+    try (TileDBResourceCache.Lease<Array> array1 = cache.acquireReadArray(config, uri, timestamp);
+        TileDBResourceCache.Lease<Array> array2 = cache.acquireReadArray(config, uri, timestamp);
+        TileDBResourceCache.Lease<Array> array3 =
+            cache.acquireReadArray(config, uri, timestamp + 1)) {
+      Assert.assertSame(array1.get(), array2.get());
+      Assert.assertNotSame(array1.get(), array3.get());
+      Assert.assertEquals(2, array1.get().nonEmptyDomain().size());
+    }
+  }
+}